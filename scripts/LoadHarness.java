@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador de carga local (closed loop) para os endpoints da API.
+ * N clientes concorrentes repetem a mesma requisição durante um tempo fixo; o resultado
+ * é a vazão (respostas de sucesso por segundo), a taxa de erros e as latências p50/p99/máx
+ * de cada endpoint. As latências incluem as requisições com erro (status >= 400 ou falha de
+ * I/O): um timeout conta como uma requisição lenta, em vez de sumir do percentil.
+ *
+ * Roda direto do código-fonte, sem build (Java 21):
+ *   java scripts/LoadHarness.java --url http://localhost:8080 --concurrency 200 --duration 30 --warmup 10
+ *
+ * Todos os clientes saem do mesmo IP: suba a aplicação com --workshop.ratelimit.enabled=false,
+ * senão o limite de taxa (RateLimitFilter) responde 429 e a medição vira contagem de erros.
+ *
+ * Opções: --url, --concurrency, --duration (s), --warmup (s), --label (nome da rodada),
+ *         --endpoints (lista separada por vírgula; {postId} e {userId} são preenchidos sozinhos),
+ *         --out (arquivo CSV onde os resultados são acrescentados).
+ */
+public class LoadHarness {
+
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f]{24})\"");
+
+	private static final String DEFAULT_ENDPOINTS = String.join(",",
+			"/posts?limit=20",
+			"/users?limit=20",
+			"/posts/{postId}",
+			"/users/{userId}",
+			"/users/{userId}/posts",
+			"/users/{userId}/feed?limit=20",
+			"/posts/titlesearch?text=bom");
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> opts = parse(args);
+		String url = opts.getOrDefault("url", "http://localhost:8080");
+		int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "200"));
+		int duration = Integer.parseInt(opts.getOrDefault("duration", "30"));
+		int warmup = Integer.parseInt(opts.getOrDefault("warmup", "10"));
+		String label = opts.getOrDefault("label", "run");
+		String out = opts.get("out");
+
+		// Os clientes usam threads virtuais para que o próprio gerador não seja o gargalo
+		HttpClient client = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+
+		String postId = firstId(client, url + "/posts?limit=1");
+		String userId = firstId(client, url + "/users?limit=1");
+
+		System.out.printf("%-20s %-32s %10s %8s %7s %10s %9s %9s %9s%n",
+				"label", "endpoint", "requests", "errors", "err(%)", "ok/s", "p50(ms)", "p99(ms)", "max(ms)");
+		for (String endpoint : opts.getOrDefault("endpoints", DEFAULT_ENDPOINTS).split(",")) {
+			if ((endpoint.contains("{postId}") && postId == null) || (endpoint.contains("{userId}") && userId == null)) {
+				System.out.printf("%-20s %-32s skipped (no data)%n", label, endpoint);
+				continue;
+			}
+			String path = endpoint.replace("{postId}", String.valueOf(postId)).replace("{userId}", String.valueOf(userId));
+			HttpRequest request = HttpRequest.newBuilder(URI.create(url + path)).GET().build();
+
+			run(client, request, concurrency, warmup);
+			Result r = run(client, request, concurrency, duration);
+
+			String line = String.format("%-20s %-32s %10d %8d %7.2f %10.1f %9.2f %9.2f %9.2f",
+					label, endpoint, r.requests, r.errors, r.errorPercent(), (r.requests - r.errors) / (double) duration,
+					r.percentile(0.50), r.percentile(0.99), r.percentile(1.0));
+			System.out.println(line);
+			if (out != null) {
+				appendCsv(out, label, endpoint, concurrency, duration, r);
+			}
+		}
+	}
+
+	/**
+	 * Dispara 'concurrency' clientes em loop fechado por 'seconds' segundos.
+	 */
+	private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds) throws Exception {
+		long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		List<Future<Worker>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < concurrency; i++) {
+				futures.add(executor.submit(() -> new Worker().loop(client, request, end)));
+			}
+		}
+		Result result = new Result();
+		for (Future<Worker> f : futures) {
+			result.add(f.get());
+		}
+		return result;
+	}
+
+	private static String firstId(HttpClient client, String url) {
+		try {
+			HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			Matcher m = ID.matcher(response.body());
+			return (response.statusCode() == 200 && m.find()) ? m.group(1) : null;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("API not reachable at " + url, e);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static void appendCsv(String file, String label, String endpoint, int concurrency, int duration, Result r)
+			throws IOException {
+		Path path = Path.of(file);
+		StringBuilder sb = new StringBuilder();
+		if (!Files.exists(path)) {
+			sb.append("label,endpoint,concurrency,requests,errors,error_pct,ok_rps,p50_ms,p99_ms,max_ms\n");
+		}
+		sb.append(String.format("%s,%s,%d,%d,%d,%.2f,%.1f,%.2f,%.2f,%.2f%n", label, endpoint, concurrency, r.requests,
+				r.errors, r.errorPercent(), (r.requests - r.errors) / (double) duration, r.percentile(0.50),
+				r.percentile(0.99), r.percentile(1.0)));
+		Files.writeString(path, sb, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> opts = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+		}
+		return opts;
+	}
+
+	/**
+	 * Um cliente: guarda as latências (em nanossegundos) das suas próprias requisições,
+	 * com sucesso ou não, sem compartilhar estado com os demais durante a medição.
+	 */
+	private static final class Worker {
+		long[] latencies = new long[1024];
+		int count;
+		long errors;
+
+		Worker loop(HttpClient client, HttpRequest request, long end) {
+			while (System.nanoTime() < end) {
+				long start = System.nanoTime();
+				try {
+					HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+					if (response.statusCode() >= 400) {
+						errors++;
+					}
+				}
+				catch (IOException e) {
+					errors++;
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				if (count == latencies.length) {
+					latencies = Arrays.copyOf(latencies, count * 2);
+				}
+				latencies[count++] = System.nanoTime() - start;
+			}
+			return this;
+		}
+	}
+
+	private static final class Result {
+		long[] latencies = new long[0];
+		long requests;
+		long errors;
+		boolean sorted;
+
+		void add(Worker w) {
+			int offset = latencies.length;
+			latencies = Arrays.copyOf(latencies, offset + w.count);
+			System.arraycopy(w.latencies, 0, latencies, offset, w.count);
+			requests += w.count;
+			errors += w.errors;
+			sorted = false;
+		}
+
+		double errorPercent() {
+			return requests == 0 ? 0 : errors * 100.0 / requests;
+		}
+
+		/**
+		 * Percentil de todas as requisições (com sucesso ou erro), em milissegundos.
+		 */
+		double percentile(double p) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			if (!sorted) {
+				Arrays.sort(latencies);
+				sorted = true;
+			}
+			int index = (int) Math.ceil(p * latencies.length) - 1;
+			return latencies[Math.max(0, index)] / 1_000_000.0;
+		}
+	}
+}
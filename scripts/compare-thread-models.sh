@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Compara vazão e latência p99 entre threads de plataforma (padrão), threads virtuais
+# (profile 'virtual') e a stack reativa WebFlux (profile 'reactive') nos endpoints
+# existentes, usando o scripts/LoadHarness.java.
+#
+# O profile 'virtual' inclui o pool maior do MongoDB ('pool-large'). Para que a diferença
+# medida seja só do modelo de threads, há também uma rodada com threads de plataforma e o
+# mesmo pool (platform-pool-large): compare 'virtual' com ela, não com 'platform'.
+#
+# Requer o MongoDB do docker-compose rodando e Java 21. Variáveis opcionais:
+#   PORT (8080), CONCURRENCY (200), DURATION (30), WARMUP (10),
+#   EXTRA_PROFILES (profiles somados a todos os modos, ex.: "seed")
+#
+# Uso: scripts/compare-thread-models.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-10}
+EXTRA_PROFILES=${EXTRA_PROFILES:-}
+OUT=target/load
+RESULTS=$OUT/thread-models.csv
+
+JAR=$(ls target/workshopmongo-*.jar 2>/dev/null | grep -v original | head -n 1 || true)
+if [ -z "$JAR" ]; then
+	./mvnw -q -DskipTests package
+	JAR=$(ls target/workshopmongo-*.jar | grep -v original | head -n 1)
+fi
+
+mkdir -p "$OUT"
+rm -f "$RESULTS"
+
+run_mode() {
+	local label=$1 profiles=$2
+	profiles=$(echo "$profiles,$EXTRA_PROFILES" | sed 's/^,//; s/,$//')
+
+	echo ">> $label (profiles: ${profiles:-default})"
+	# Sem o limite de taxa: todos os clientes do harness saem do mesmo IP e seriam respondidos com 429
+	java -jar "$JAR" --server.port="$PORT" ${profiles:+--spring.profiles.active=$profiles} \
+		--workshop.ratelimit.enabled=false > "$OUT/$label-app.log" 2>&1 &
+	local pid=$!
+	trap "kill $pid 2>/dev/null || true" EXIT
+
+	# Espera a aplicação responder (até 60s)
+	for _ in $(seq 1 60); do
+		curl -sf "http://localhost:$PORT/users?limit=1" > /dev/null && break
+		sleep 1
+	done
+
+	java scripts/LoadHarness.java --url "http://localhost:$PORT" --label "$label" \
+		--concurrency "$CONCURRENCY" --duration "$DURATION" --warmup "$WARMUP" --out "$RESULTS"
+
+	kill "$pid"
+	wait "$pid" 2>/dev/null || true
+	trap - EXIT
+}
+
+run_mode platform ""
+run_mode platform-pool-large pool-large
+run_mode virtual virtual
+run_mode reactive reactive
+
+echo
+column -s, -t < "$RESULTS"
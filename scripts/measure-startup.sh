@@ -0,0 +1,120 @@
+#!/usr/bin/env bash
+#
+# Mede o tempo da partida até a primeira requisição com sucesso (HTTP 2xx) em cada modo
+# de build: JVM comum, AOT, CDS, AOT + CDS e imagem nativa (profiles do pom.xml).
+# Também registra a memória residente (RSS) do processo nesse momento.
+#
+# Requer o MongoDB do docker-compose rodando e Java 21. O modo 'native' só roda se o
+# native-image (GraalVM) estiver no PATH. Variáveis opcionais:
+#   PORT (8080), RUNS (5), URL_PATH (/users?limit=1), TIMEOUT (60 segundos por partida),
+#   MODES ("jvm aot cds aot-cds native"), SKIP_BUILD (1 = reaproveita target/startup),
+#   APP_ARGS (argumentos extras da aplicação em todos os modos)
+#
+# Uso: scripts/measure-startup.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+RUNS=${RUNS:-5}
+URL_PATH=${URL_PATH:-/users?limit=1}
+TIMEOUT=${TIMEOUT:-60}
+MODES=${MODES:-jvm aot cds aot-cds native}
+SKIP_BUILD=${SKIP_BUILD:-0}
+APP_ARGS=${APP_ARGS:-}
+OUT=target/startup
+RESULTS=$OUT/startup.csv
+JAR_NAME=workshopmongo-0.0.1-SNAPSHOT.jar
+
+mkdir -p "$OUT"
+
+# Cada modo é empacotado e copiado para target/startup/<modo>, porque os builds
+# sobrescrevem o mesmo jar em target/
+build_mode() {
+	local mode=$1
+	[ "$SKIP_BUILD" = 1 ] && return
+	echo ">> build $mode"
+	rm -rf "${OUT:?}/$mode"
+	mkdir -p "$OUT/$mode"
+	case $mode in
+		jvm)
+			./mvnw -q -DskipTests package
+			cp "target/$JAR_NAME" "$OUT/$mode/" ;;
+		aot)
+			./mvnw -q -Paot -DskipTests package
+			cp "target/$JAR_NAME" "$OUT/$mode/" ;;
+		cds)
+			./mvnw -q -Pcds -DskipTests package
+			cp -r target/cds/. "$OUT/$mode/" ;;
+		aot-cds)
+			./mvnw -q -Paot,cds -DskipTests package
+			cp -r target/cds/. "$OUT/$mode/" ;;
+		native)
+			./mvnw -q -Pnative -DskipTests native:compile
+			cp target/workshopmongo "$OUT/$mode/" ;;
+	esac
+}
+
+command_for() {
+	local mode=$1 dir=$OUT/$1
+	case $mode in
+		jvm) echo "java -jar $dir/$JAR_NAME" ;;
+		aot) echo "java -Dspring.aot.enabled=true -jar $dir/$JAR_NAME" ;;
+		cds) echo "java -XX:SharedArchiveFile=$dir/application.jsa -Xlog:cds=off -jar $dir/$JAR_NAME" ;;
+		aot-cds) echo "java -XX:SharedArchiveFile=$dir/application.jsa -Xlog:cds=off -Dspring.aot.enabled=true -jar $dir/$JAR_NAME" ;;
+		native) echo "$dir/workshopmongo" ;;
+	esac
+}
+
+now_ms() {
+	echo $(($(date +%s%N) / 1000000))
+}
+
+# Uma partida: devolve "ms rss_kb", ou "falhou" se não respondeu dentro do TIMEOUT
+measure_once() {
+	local mode=$1 log=$OUT/$1-app.log
+	local start pid elapsed rss
+	start=$(now_ms)
+	$(command_for "$mode") --server.port="$PORT" $APP_ARGS > "$log" 2>&1 &
+	pid=$!
+	trap "kill $pid 2>/dev/null || true" EXIT
+
+	elapsed=
+	while [ $(($(now_ms) - start)) -lt $((TIMEOUT * 1000)) ]; do
+		if curl -sf -o /dev/null "http://localhost:$PORT$URL_PATH"; then
+			elapsed=$(($(now_ms) - start))
+			break
+		fi
+		kill -0 "$pid" 2>/dev/null || break
+		sleep 0.05
+	done
+	rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status" 2>/dev/null || echo 0)
+
+	kill "$pid" 2>/dev/null || true
+	wait "$pid" 2>/dev/null || true
+	trap - EXIT
+	echo "${elapsed:-falhou} ${rss:-0}"
+}
+
+echo "mode,run,first_request_ms,rss_kb" > "$RESULTS"
+for mode in $MODES; do
+	if [ "$mode" = native ] && ! command -v native-image > /dev/null; then
+		echo ">> native: native-image não encontrado no PATH, pulando"
+		continue
+	fi
+	build_mode "$mode"
+	for run in $(seq 1 "$RUNS"); do
+		read -r ms rss <<< "$(measure_once "$mode")"
+		echo ">> $mode #$run: ${ms} ms, RSS ${rss} KB"
+		echo "$mode,$run,$ms,$rss" >> "$RESULTS"
+	done
+done
+
+# Mediana do tempo até a primeira requisição por modo
+echo
+echo "mode,median_ms,median_rss_kb" > "$OUT/summary.csv"
+for mode in $MODES; do
+	{ grep "^$mode," "$RESULTS" | grep -v falhou || true; } | cut -d, -f3,4 | sort -t, -n -k1 \
+		| awk -F, -v m="$mode" '{ ms[NR] = $1; rss[NR] = $2 } END { if (NR) { i = int((NR + 1) / 2); print m "," ms[i] "," rss[i] } }' \
+		>> "$OUT/summary.csv"
+done
+column -s, -t < "$OUT/summary.csv"
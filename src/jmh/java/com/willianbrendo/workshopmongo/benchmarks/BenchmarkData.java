@@ -0,0 +1,82 @@
+package com.willianbrendo.workshopmongo.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.AuthorDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+
+/**
+ * Massa de dados dos benchmarks, com tamanhos e textos parecidos com os reais.
+ */
+final class BenchmarkData {
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * ObjectMapper com os mesmos módulos que o Spring Boot registra (ex.: datas java.time).
+	 */
+	static ObjectMapper objectMapper() {
+		return Jackson2ObjectMapperBuilder.json().build();
+	}
+
+	/**
+	 * ObjectMapper Smile com os mesmos módulos (como no BinaryFormatsConfig).
+	 */
+	static ObjectMapper smileMapper() {
+		return Jackson2ObjectMapperBuilder.smile().build();
+	}
+
+	/**
+	 * ObjectMapper CBOR com os mesmos módulos (como no BinaryFormatsConfig).
+	 */
+	static ObjectMapper cborMapper() {
+		return Jackson2ObjectMapperBuilder.cbor().build();
+	}
+
+	static User user(int i) {
+		return new User(new ObjectId().toHexString(), "Usuário " + i, "usuario" + i + "@example.com");
+	}
+
+	static List<User> users(int count) {
+		List<User> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(user(i));
+		}
+		return list;
+	}
+
+	/**
+	 * Uma página de 'count' posts com 'comments' comentários cada, como no GET /posts.
+	 */
+	static List<Post> posts(int count, int comments) {
+		List<Post> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(post(comments));
+		}
+		return list;
+	}
+
+	/**
+	 * Um post com 'comments' comentários embutidos, cada um com seu AuthorDTO.
+	 */
+	static Post post(int comments) {
+		Instant now = Instant.now();
+		Post post = new Post(new ObjectId().toHexString(), now, "Partiu Viagem!",
+				"Vou viajar para São Paulo, Abraços. Alguém tem dicas de restaurantes perto da Paulista?",
+				new AuthorDTO(user(0)));
+		for (int i = 0; i < comments; i++) {
+			post.getComments().add(new CommentDTO("Boa viagem!! Aproveita e manda fotos " + i,
+					now.minusSeconds(i), new AuthorDTO(user(i + 1))));
+		}
+		return post;
+	}
+}
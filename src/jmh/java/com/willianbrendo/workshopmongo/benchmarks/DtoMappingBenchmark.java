@@ -0,0 +1,65 @@
+package com.willianbrendo.workshopmongo.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.AuthorDTO;
+import com.willianbrendo.workshopmongo.dto.UserDTO;
+
+/**
+ * Custo do mapeamento Entidade -> DTO feito em toda requisição:
+ * a conversão List<User> -> List<UserDTO> do UserResource e a criação de AuthorDTO.
+ * Rode com '-prof gc' (padrão do profile jmh) para ver a taxa de alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	private int users;
+
+	private List<User> list;
+	private User single;
+
+	@Setup
+	public void setup() {
+		list = BenchmarkData.users(users);
+		single = list.get(0);
+	}
+
+	/**
+	 * Mesmo código do UserResource.findAll().
+	 */
+	@Benchmark
+	public List<UserDTO> userDtoList() {
+		return list.stream().map(x -> new UserDTO(x)).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public UserDTO userDto() {
+		return new UserDTO(single);
+	}
+
+	@Benchmark
+	public AuthorDTO authorDto() {
+		return new AuthorDTO(single);
+	}
+}
@@ -0,0 +1,50 @@
+package com.willianbrendo.workshopmongo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willianbrendo.workshopmongo.domain.Post;
+
+/**
+ * Custo da serialização JSON (Jackson) de um Post com N comentários embutidos,
+ * como no GET /posts/{id}. De 1 a 1.000 comentários por post.
+ * Rode com '-prof gc' (padrão do profile jmh) para ver a taxa de alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostSerializationBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	private int comments;
+
+	private ObjectMapper mapper;
+	private Post post;
+
+	@Setup
+	public void setup() {
+		mapper = BenchmarkData.objectMapper();
+		post = BenchmarkData.post(comments);
+	}
+
+	@Benchmark
+	public byte[] serializePost() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(post);
+	}
+}
@@ -0,0 +1,96 @@
+package com.willianbrendo.workshopmongo.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willianbrendo.workshopmongo.domain.Post;
+
+/**
+ * JSON x Smile x CBOR nas listagens de posts (GET /posts, titlesearch): CPU de serialização,
+ * com e sem gzip (server.compression), e bytes na rede. O tamanho da resposta sai como resultado
+ * secundário de cada benchmark (serialize:bytes e serializeGzip:bytes), junto com o tempo, inclusive
+ * nos arquivos de resultado (-rf json/csv). Para rodar só este benchmark:
+ *   ./mvnw -Pjmh compile exec:exec -Djmh.args="WireFormat -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+	@Param({ "json", "smile", "cbor" })
+	private String format;
+
+	@Param({ "10", "100" })
+	private int posts;
+
+	@Param({ "0", "10" })
+	private int comments;
+
+	private ObjectMapper mapper;
+	private List<Post> page;
+
+	@Setup
+	public void setup() throws IOException {
+		mapper = switch (format) {
+			case "smile" -> BenchmarkData.smileMapper();
+			case "cbor" -> BenchmarkData.cborMapper();
+			default -> BenchmarkData.objectMapper();
+		};
+		page = BenchmarkData.posts(posts, comments);
+	}
+
+	@Benchmark
+	public byte[] serialize(WireSize size) throws IOException {
+		byte[] bytes = mapper.writeValueAsBytes(page);
+		size.bytes = bytes.length;
+		return bytes;
+	}
+
+	/**
+	 * Serialização + gzip, o custo total de CPU com a compressão ligada.
+	 */
+	@Benchmark
+	public byte[] serializeGzip(WireSize size) throws IOException {
+		byte[] bytes = gzip(mapper.writeValueAsBytes(page));
+		size.bytes = bytes.length;
+		return bytes;
+	}
+
+	/**
+	 * Bytes na rede da última resposta serializada. O valor é atribuído (não somado) a cada
+	 * operação, então o resultado é o tamanho de uma resposta, e não o total da iteração.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class WireSize {
+		public long bytes;
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+}
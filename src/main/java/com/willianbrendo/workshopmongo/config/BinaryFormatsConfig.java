@@ -0,0 +1,147 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.WebFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import reactor.core.publisher.Flux;
+
+/**
+ * Formatos binários opcionais das respostas (e corpos de requisição), escolhidos pelo cliente
+ * no cabeçalho Accept (ou Content-Type):
+ *  - application/x-jackson-smile (Smile)
+ *  - application/cbor (CBOR)
+ * Sem Accept, ou com Accept: application/json, a resposta continua JSON.
+ *
+ * Os ObjectMappers saem do Jackson2ObjectMapperBuilder do Boot, então Post, UserDTO e
+ * CommentDTO são serializados com as mesmas configurações do JSON (datas java.time, @JsonIgnore).
+ * A compressão gzip das respostas grandes fica no application.properties (server.compression.*).
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+	/**
+	 * Com mais de uma representação por URL, caches intermediários precisam separar as
+	 * respostas pelo Accept.
+	 */
+	static final String VARY_ACCEPT = HttpHeaders.ACCEPT;
+
+	static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+		return builder.factory(new SmileFactory()).build();
+	}
+
+	static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+		return builder.factory(new CBORFactory()).build();
+	}
+
+	/**
+	 * Stack servlet: os conversores substituem, na mesma posição (depois do JSON), os que o
+	 * Spring MVC registraria com um ObjectMapper sem as configurações do Boot.
+	 * O builder do Boot é prototype: cada método recebe uma instância nova.
+	 */
+	@Configuration
+	@ConditionalOnWebApplication(type = Type.SERVLET)
+	static class Servlet {
+
+		@Bean
+		public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+			return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+		}
+
+		@Bean
+		public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+			return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+		}
+
+		@Bean
+		public OncePerRequestFilter varyAcceptFilter() {
+			return new OncePerRequestFilter() {
+				@Override
+				protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+						FilterChain filterChain) throws ServletException, IOException {
+					response.addHeader(HttpHeaders.VARY, VARY_ACCEPT);
+					filterChain.doFilter(request, response);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Stack reativa (profile 'reactive'): o WebFlux já traz um codec Smile padrão, que é trocado
+	 * pelo do builder do Boot; o CBOR entra como codec adicional.
+	 */
+	@Configuration
+	@ConditionalOnWebApplication(type = Type.REACTIVE)
+	static class Reactive {
+
+		@Bean
+		public CodecCustomizer binaryFormatsCodecCustomizer(Jackson2ObjectMapperBuilder smileBuilder,
+				Jackson2ObjectMapperBuilder cborBuilder) {
+			ObjectMapper smile = smileMapper(smileBuilder);
+			ObjectMapper cbor = cborMapper(cborBuilder);
+			return configurer -> {
+				configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile));
+				configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile));
+				configurer.customCodecs().register(new ListCborEncoder(cbor));
+				configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+			};
+		}
+
+		@Bean
+		public WebFilter varyAcceptWebFilter() {
+			return (exchange, chain) -> {
+				exchange.getResponse().getHeaders().add(HttpHeaders.VARY, VARY_ACCEPT);
+				return chain.filter(exchange);
+			};
+		}
+	}
+
+	/**
+	 * O Jackson2CborEncoder não codifica Flux (só valores únicos). Como as listagens reativas
+	 * devolvem Flux, junta os elementos numa lista e codifica como um array CBOR, igual ao JSON.
+	 */
+	static class ListCborEncoder extends Jackson2CborEncoder {
+
+		ListCborEncoder(ObjectMapper mapper) {
+			super(mapper);
+		}
+
+		@Override
+		public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+				ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+			ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+			return Flux.from(inputStream).collectList()
+					.map(list -> encodeValue(list, bufferFactory, listType, mimeType, hints))
+					.flux();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache em memória (Caffeine) para as buscas por ID de posts e usuários.
+ * Cada cache tem tamanho máximo e tempo de expiração próprios, configurados no
+ * application.properties, e pode ser desligado individualmente (vira um NoOpCache).
+ */
+@Configuration
+@EnableCaching // 🎯 Ativa o processamento de @Cacheable/@CacheEvict nos Services
+public class CacheConfig {
+
+	public static final String POSTS = "posts";
+	public static final String USERS = "users";
+
+	@Value("${workshop.cache.posts.enabled:true}")
+	private boolean postsEnabled;
+
+	@Value("${workshop.cache.posts.max-size:10000}")
+	private long postsMaxSize;
+
+	@Value("${workshop.cache.posts.expire-after-write:10m}")
+	private Duration postsExpireAfterWrite;
+
+	@Value("${workshop.cache.users.enabled:true}")
+	private boolean usersEnabled;
+
+	@Value("${workshop.cache.users.max-size:10000}")
+	private long usersMaxSize;
+
+	@Value("${workshop.cache.users.expire-after-write:10m}")
+	private Duration usersExpireAfterWrite;
+
+	@Bean
+	public CacheManager cacheManager() {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Arrays.asList(
+				buildCache(POSTS, postsEnabled, postsMaxSize, postsExpireAfterWrite),
+				buildCache(USERS, usersEnabled, usersMaxSize, usersExpireAfterWrite)));
+		return cacheManager;
+	}
+
+	/**
+	 * Cria um cache limitado por tamanho (maximumSize) e por tempo (expireAfterWrite),
+	 * com estatísticas de acertos, falhas e remoções ligadas (recordStats).
+	 * Se o cache estiver desligado, retorna um NoOpCache: toda busca vai ao banco.
+	 */
+	private Cache buildCache(String name, boolean enabled, long maxSize, Duration expireAfterWrite) {
+		if (!enabled) {
+			return new NoOpCache(name);
+		}
+		return new CaffeineCache(name, Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build());
+	}
+}
@@ -0,0 +1,64 @@
+package com.willianbrendo.workshopmongo.config;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Listener de comandos do driver que conta quantos documentos cada leitura devolveu.
+ * O Boot já mede a latência dos comandos (mongodb.driver.commands), mas não o volume:
+ * aqui cada lote de cursor (firstBatch do find/aggregate e nextBatch do getMore) é
+ * registrado em 'mongodb.driver.documents.returned', com as tags command e collection.
+ */
+public class DocumentsReturnedListener implements CommandListener {
+
+	public static final String METRIC_NAME = "mongodb.driver.documents.returned";
+
+	private final MeterRegistry registry;
+
+	public DocumentsReturnedListener(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		BsonDocument response = event.getResponse();
+		if (response == null || !response.isDocument("cursor")) {
+			return; // Comandos sem cursor (insert, update, delete...) não devolvem documentos
+		}
+		BsonDocument cursor = response.getDocument("cursor");
+		BsonArray batch = cursor.isArray("firstBatch") ? cursor.getArray("firstBatch")
+				: cursor.isArray("nextBatch") ? cursor.getArray("nextBatch") : null;
+		if (batch == null) {
+			return;
+		}
+		DistributionSummary.builder(METRIC_NAME)
+				.description("Documentos devolvidos por lote de cursor")
+				.baseUnit("documents")
+				.tag("command", event.getCommandName())
+				.tag("collection", collectionOf(cursor))
+				.register(registry)
+				.record(batch.size());
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		// Falhas já aparecem em mongodb.driver.commands (status=FAILED)
+	}
+
+	// O namespace do cursor vem como "banco.colecao"
+	static String collectionOf(BsonDocument cursor) {
+		if (!cursor.isString("ns")) {
+			return "unknown";
+		}
+		String ns = cursor.getString("ns").getValue();
+		int dot = ns.indexOf('.');
+		return dot < 0 ? ns : ns.substring(dot + 1);
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import com.willianbrendo.workshopmongo.domain.Post;
@@ -14,9 +15,17 @@ import com.willianbrendo.workshopmongo.dto.CommentDTO;
 import com.willianbrendo.workshopmongo.repositories.PostRepository;
 import com.willianbrendo.workshopmongo.repositories.UserRepository;
 
+/**
+ * Carga inicial mínima (3 usuários, 2 posts) para testes manuais.
+ * Apaga as duas coleções, então só roda quando pedida: profile 'seed'.
+ * Para uma massa de dados realista, use o profile 'generate' (SyntheticDataGenerator).
+ */
 @Component
+@Profile(Instantiation.PROFILE)
 public class Instantiation implements CommandLineRunner {
 
+	public static final String PROFILE = "seed";
+
 	@Autowired
 	private UserRepository userRepository;
 
@@ -44,12 +53,8 @@ public class Instantiation implements CommandLineRunner {
 		CommentDTO comen1 = new CommentDTO("Boa viagem!!", Instant.now(), new AuthorDTO(joao));
 		post1.getComments().add(comen1);
 		
+		// Os posts ficam ligados ao usuário só pelo autor embutido (author.id)
 		postRepository.saveAll(Arrays.asList(post1, post2));
-		
-		willian.getPosts().add(post1);
-		maria.getPosts().add(post2);
-		
-		userRepository.saveAll(Arrays.asList(willian, maria));
 
 	}
 
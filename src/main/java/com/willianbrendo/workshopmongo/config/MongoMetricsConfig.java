@@ -0,0 +1,29 @@
+package com.willianbrendo.workshopmongo.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.willianbrendo.workshopmongo.services.SlowQueryProfiler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas do driver do MongoDB.
+ * A latência dos comandos (mongodb.driver.commands) e o estado do pool de conexões
+ * (mongodb.driver.pool.*) já são registrados pelo actuator; aqui somamos
+ * o contador de documentos devolvidos por leitura e o profiler de consultas lentas.
+ */
+@Configuration
+public class MongoMetricsConfig {
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer documentsReturnedCustomizer(MeterRegistry registry) {
+		return builder -> builder.addCommandListener(new DocumentsReturnedListener(registry));
+	}
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(SlowQueryProfiler profiler) {
+		return builder -> builder.addCommandListener(new SlowQueryListener(profiler));
+	}
+}
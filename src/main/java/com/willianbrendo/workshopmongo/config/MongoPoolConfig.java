@@ -0,0 +1,43 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do pool de conexões do driver do MongoDB.
+ * Com threads virtuais (profile 'virtual') o Tomcat deixa de limitar a concorrência,
+ * e quem passa a limitar é este pool: cada chamada ao banco ocupa uma conexão.
+ * Por isso o tamanho e a espera máxima por conexão ficam configuráveis por profile
+ * (o profile 'pool-large', que o 'virtual' inclui).
+ */
+@Configuration
+public class MongoPoolConfig {
+
+	@Value("${workshop.mongo.pool.max-size:100}")
+	private int maxSize;
+
+	@Value("${workshop.mongo.pool.min-size:0}")
+	private int minSize;
+
+	// Quantas conexões podem estar sendo abertas ao mesmo tempo (evita rajadas de handshake)
+	@Value("${workshop.mongo.pool.max-connecting:2}")
+	private int maxConnecting;
+
+	// Tempo máximo que uma requisição espera por uma conexão livre antes de falhar
+	@Value("${workshop.mongo.pool.max-wait:2m}")
+	private Duration maxWait;
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer() {
+		return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+				.maxSize(maxSize)
+				.minSize(minSize)
+				.maxConnecting(maxConnecting)
+				.maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,50 @@
+package com.willianbrendo.workshopmongo.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.AuthorDTO;
+import com.willianbrendo.workshopmongo.dto.BatchItemDTO;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+import com.willianbrendo.workshopmongo.dto.CacheStatsDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.dto.SlowQueryDTO;
+import com.willianbrendo.workshopmongo.dto.UserDTO;
+import com.willianbrendo.workshopmongo.resources.exceptions.StandardError;
+
+/**
+ * Dicas de reflexão para a imagem nativa (profile Maven 'native').
+ * Só têm efeito no processamento AOT; na JVM comum esta classe não muda nada.
+ *
+ * - Mapeamento do MongoDB: Post e User, e os DTOs embutidos neles (AuthorDTO, CommentDTO),
+ *   são lidos e escritos por reflexão (campos, construtor de persistência e @Version).
+ * - Jackson: os tipos das respostas. Os retornos dos controllers já entram sozinhos, mas a
+ *   exportação NDJSON (StreamingResponseBody) e os formatos binários serializam fora deles.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.MongoMappingHints.class)
+@RegisterReflectionForBinding({ Post.class, User.class, AuthorDTO.class, CommentDTO.class, UserDTO.class,
+		CursorPageDTO.class, BatchResultDTO.class, BatchItemDTO.class, CacheStatsDTO.class, SlowQueryDTO.class,
+		StandardError.class })
+public class NativeHintsConfig {
+
+	static class MongoMappingHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+			for (Class<?> type : new Class<?>[] { Post.class, User.class, AuthorDTO.class, CommentDTO.class }) {
+				hints.reflection().registerType(type,
+						MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+						MemberCategory.INVOKE_DECLARED_METHODS,
+						MemberCategory.DECLARED_FIELDS);
+			}
+		}
+	}
+}
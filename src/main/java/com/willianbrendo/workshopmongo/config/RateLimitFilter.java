@@ -0,0 +1,237 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.willianbrendo.workshopmongo.resources.exceptions.StandardError;
+import com.willianbrendo.workshopmongo.services.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controle de admissão da stack servlet: um balde de fichas (TokenBucket) por cliente e por
+ * endpoint. Quem passa do limite recebe 429 com Retry-After aqui no filtro, antes do
+ * DispatcherServlet, então nenhuma consulta ao MongoDB é feita.
+ *
+ * - Cliente: o IP da conexão. Atrás de um gateway confiável que sobrescreve um cabeçalho de
+ *   identificação (ex.: X-Client-Id), workshop.ratelimit.client-header pode apontar para ele.
+ *   Nunca ligar sem esse gateway: o cliente trocaria o valor a cada requisição para escapar do
+ *   limite e encheria o cache de baldes.
+ * - Endpoint: a primeira regra de workshop.ratelimit.endpoints que casar com o método e o caminho
+ *   (regras de GET também valem para HEAD); sem regra, vale o limite padrão.
+ * - Os baldes ficam em um cache Caffeine limitado, e somem depois de um tempo sem uso.
+ *
+ * Admitidas e rejeitadas vão para o contador workshop.ratelimit.requests (tags endpoint e outcome).
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class RateLimitFilter extends OncePerRequestFilter implements Ordered {
+
+	private static final String METRIC = "workshop.ratelimit.requests";
+	private static final String DEFAULT_RULE = "default";
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${workshop.ratelimit.enabled:true}")
+	private boolean enabled;
+
+	// Vazio (padrão): o cliente é o IP. Só preencher se o cabeçalho vier de um gateway confiável
+	@Value("${workshop.ratelimit.client-header:}")
+	private String clientHeader;
+
+	@Value("${workshop.ratelimit.default-rate:50}")
+	private double defaultRate;
+
+	@Value("${workshop.ratelimit.default-burst:100}")
+	private int defaultBurst;
+
+	// Regras por endpoint: "MÉTODO /caminho=taxa:rajada", o caminho aceita padrões (/posts/*)
+	// e o método pode ser '*'. Ex.: GET /posts=20:40,GET /posts/fullsearch=5:10
+	@Value("${workshop.ratelimit.endpoints:}")
+	private List<String> endpoints;
+
+	@Value("${workshop.ratelimit.exclude:/actuator/**}")
+	private List<String> exclude;
+
+	@Value("${workshop.ratelimit.max-clients:100000}")
+	private long maxClients;
+
+	@Value("${workshop.ratelimit.idle-expiry:10m}")
+	private Duration idleExpiry;
+
+	private final List<Rule> rules = new ArrayList<>();
+	private final List<PathPattern> excluded = new ArrayList<>();
+	private Rule defaultRule;
+	private Cache<String, TokenBucket> buckets;
+
+	@PostConstruct
+	void init() {
+		PathPatternParser parser = PathPatternParser.defaultInstance;
+		for (String endpoint : endpoints) {
+			if (!endpoint.isBlank()) {
+				rules.add(Rule.parse(endpoint.trim(), parser, registry));
+			}
+		}
+		for (String pattern : exclude) {
+			if (!pattern.isBlank()) {
+				excluded.add(parser.parse(pattern.trim()));
+			}
+		}
+		defaultRule = new Rule(DEFAULT_RULE, "*", null, defaultRate, defaultBurst, registry);
+		buckets = Caffeine.newBuilder()
+				.maximumSize(maxClients)
+				.expireAfterAccess(idleExpiry)
+				.build();
+	}
+
+	@Override
+	public int getOrder() {
+		// Depois do filtro de observação do Boot, para os 429 aparecerem em http.server.requests
+		return Ordered.HIGHEST_PRECEDENCE + 10;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (!enabled) {
+			return true;
+		}
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		return excluded.stream().anyMatch(p -> p.matches(path));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		Rule rule = match(request);
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(client(request) + " " + rule.name,
+				k -> new TokenBucket(rule.rate, rule.burst, now));
+		long waitNanos = bucket.tryAcquire(now);
+		if (waitNanos == 0) {
+			rule.admitted.increment();
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		rule.rejected.increment();
+		HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+		StandardError err = new StandardError(Instant.now(), status.value(), "Too Many Requests",
+				"Rate limit exceeded for " + rule.name, request.getRequestURI());
+		response.setStatus(status.value());
+		// Retry-After em segundos inteiros, arredondado para cima
+		response.setHeader(HttpHeaders.RETRY_AFTER,
+				String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), err);
+	}
+
+	private Rule match(HttpServletRequest request) {
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		for (Rule rule : rules) {
+			if (rule.matches(request.getMethod(), path)) {
+				return rule;
+			}
+		}
+		return defaultRule;
+	}
+
+	private String client(HttpServletRequest request) {
+		String id = clientHeader.isBlank() ? null : request.getHeader(clientHeader.trim());
+		return id == null || id.isBlank() ? request.getRemoteAddr() : id;
+	}
+
+	/**
+	 * Limite de um endpoint, com os contadores de admitidas e rejeitadas já registrados.
+	 */
+	private static final class Rule {
+
+		final String name;
+		final String method;
+		final PathPattern pattern;
+		final double rate;
+		final int burst;
+		final Counter admitted;
+		final Counter rejected;
+
+		Rule(String name, String method, PathPattern pattern, double rate, int burst, MeterRegistry registry) {
+			if (rate <= 0 || burst < 1) {
+				throw new IllegalArgumentException("Invalid rate limit for " + name + ": " + rate + ":" + burst);
+			}
+			this.name = name;
+			this.method = method;
+			this.pattern = pattern;
+			this.rate = rate;
+			this.burst = burst;
+			this.admitted = counter(registry, name, "admitted");
+			this.rejected = counter(registry, name, "rejected");
+		}
+
+		/**
+		 * @param spec "MÉTODO /caminho=taxa:rajada", ex.: "GET /posts=20:40".
+		 */
+		static Rule parse(String spec, PathPatternParser parser, MeterRegistry registry) {
+			try {
+				String[] endpointAndLimit = spec.split("=", 2);
+				String[] methodAndPath = endpointAndLimit[0].trim().split("\\s+", 2);
+				String[] rateAndBurst = endpointAndLimit[1].trim().split(":", 2);
+				String method = methodAndPath[0].toUpperCase();
+				String path = methodAndPath[1];
+				return new Rule(method + " " + path, method, parser.parse(path), Double.parseDouble(rateAndBurst[0]),
+						Integer.parseInt(rateAndBurst[1]), registry);
+			}
+			catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid workshop.ratelimit.endpoints entry: " + spec, e);
+			}
+		}
+
+		/**
+		 * Regras de GET também valem para HEAD: o Spring MVC responde o HEAD com o handler do GET
+		 * (mesma consulta), então ele não pode escapar para o limite padrão. Os dois dividem o balde.
+		 */
+		boolean matches(String requestMethod, PathContainer path) {
+			boolean methodMatches = method.equals("*") || method.equals(requestMethod)
+					|| (method.equals("GET") && "HEAD".equals(requestMethod));
+			return methodMatches && pattern.matches(path);
+		}
+
+		private static Counter counter(MeterRegistry registry, String endpoint, String outcome) {
+			return Counter.builder(METRIC)
+					.description("Requisições admitidas e rejeitadas (429) pelo limite de taxa")
+					.tag("endpoint", endpoint)
+					.tag("outcome", outcome)
+					.register(registry);
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.willianbrendo.workshopmongo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Servidor da stack reativa (profile 'reactive').
+ * Como o Tomcat continua no classpath por causa da stack servlet, o Boot escolheria o
+ * Tomcat também no modo reativo; aqui forçamos o Netty, que é o servidor
+ * com event loop que queremos comparar com o modelo de uma thread por requisição.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveServerConfig {
+
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
@@ -0,0 +1,55 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.willianbrendo.workshopmongo.services.SlowQueryProfiler;
+
+/**
+ * Listener de comandos do driver que alimenta o SlowQueryProfiler.
+ * O documento do comando só existe no evento de início, então ele é copiado ali
+ * (só para leituras) e descartado no fim; se a duração passou do limite, vai para o profiler.
+ */
+public class SlowQueryListener implements CommandListener {
+
+	private final SlowQueryProfiler profiler;
+
+	// Comandos em andamento, pelo requestId (único por comando enviado pelo driver)
+	private final Map<Integer, BsonDocument> inFlight = new ConcurrentHashMap<>();
+
+	public SlowQueryListener(SlowQueryProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	@Override
+	public void commandStarted(CommandStartedEvent event) {
+		if (profiler.isCandidate(event.getCommandName())) {
+			// O driver libera o buffer do comando depois do evento, por isso a cópia
+			inFlight.put(event.getRequestId(), event.getCommand().clone());
+		}
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+	}
+
+	@Override
+	public void commandFailed(CommandFailedEvent event) {
+		finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+	}
+
+	private void finished(int requestId, String commandName, long elapsedNanos, boolean failed) {
+		BsonDocument command = inFlight.remove(requestId);
+		if (command != null && elapsedNanos >= profiler.getThresholdNanos()) {
+			profiler.record(command, commandName, elapsedNanos, failed);
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.AuthorDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.services.util.ZipfDistribution;
+
+/**
+ * Gerador de massa de dados sintética (profile 'generate', sem servidor web: a aplicação
+ * termina no fim). Gera milhões de usuários, posts e comentários com distribuição realista:
+ *  - autores de posts e de comentários seguem Zipf: poucos usuários escrevem muito;
+ *  - a quantidade de comentários por post também segue Zipf: a maioria tem poucos ou nenhum,
+ *    alguns posts "quentes" chegam ao limite (workshop.comments.max-embedded).
+ *
+ * Os documentos são montados em paralelo (workshop.generator.threads) e gravados em lotes com
+ * inserções em bulk no modo UNORDERED. O progresso (documentos por segundo) vai para o log a
+ * cada poucos segundos, e o total no fim.
+ *
+ * Com workshop.generator.drop=true as coleções são apagadas antes e os índices das entidades
+ * só são recriados depois da carga: montar o índice uma vez sai mais barato que mantê-lo a
+ * cada inserção.
+ */
+@Component
+@Profile(SyntheticDataGenerator.PROFILE)
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+	public static final String PROFILE = "generate";
+
+	private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+	private static final String[] NAMES = { "Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela",
+			"Henrique", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia",
+			"Thiago", "Vanessa", "Willian" };
+
+	private static final String[] WORDS = { "viagem", "café", "trabalho", "praia", "família", "futebol", "música",
+			"livro", "filme", "receita", "treino", "projeto", "cidade", "fotos", "amigos", "domingo", "férias",
+			"show", "estudo", "código" };
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private MongoMappingContext mappingContext;
+
+	@Value("${workshop.generator.users:100000}")
+	private int users;
+
+	@Value("${workshop.generator.posts:1000000}")
+	private int posts;
+
+	@Value("${workshop.generator.max-comments:${workshop.comments.max-embedded:500}}")
+	private int maxComments;
+
+	@Value("${workshop.generator.author-skew:1.0}")
+	private double authorSkew;
+
+	@Value("${workshop.generator.comment-skew:1.2}")
+	private double commentSkew;
+
+	@Value("${workshop.generator.days:365}")
+	private int days;
+
+	// 0 = uma thread por processador
+	@Value("${workshop.generator.threads:0}")
+	private int threads;
+
+	@Value("${workshop.generator.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${workshop.generator.seed:42}")
+	private long seed;
+
+	@Value("${workshop.generator.drop:false}")
+	private boolean drop;
+
+	private final LongAdder usersWritten = new LongAdder();
+	private final LongAdder postsWritten = new LongAdder();
+	private final LongAdder commentsWritten = new LongAdder();
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		if (drop) {
+			mongoTemplate.dropCollection(User.class);
+			mongoTemplate.dropCollection(Post.class);
+		}
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		log.info("Gerando {} usuários e {} posts (até {} comentários por post) com {} threads, lotes de {}",
+				users, posts, maxComments, threads, batchSize);
+
+		// Os IDs dos usuários são criados antes, para os posts e comentários apontarem para eles.
+		// A posição k da distribuição de Zipf é o usuário k: os primeiros são os autores "pesados".
+		ObjectId[] userIds = new ObjectId[users];
+		for (int i = 0; i < users; i++) {
+			userIds[i] = new ObjectId();
+		}
+		ZipfDistribution authors = new ZipfDistribution(users, authorSkew);
+		ZipfDistribution commentCounts = new ZipfDistribution(maxComments + 1, commentSkew);
+		Instant now = Instant.now();
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+		reporter.scheduleAtFixedRate(() -> report(start), 5, 5, TimeUnit.SECONDS);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int from = 0; from < users; from += batchSize) {
+				int to = Math.min(from + batchSize, users);
+				int first = from;
+				tasks.add(executor.submit(() -> insertUsers(userIds, first, to)));
+			}
+			for (int from = 0, batch = 0; from < posts; from += batchSize, batch++) {
+				int count = Math.min(batchSize, posts - from);
+				// Um gerador por lote, derivado da semente: a mesma configuração gera os mesmos dados
+				SplittableRandom random = new SplittableRandom(seed + batch);
+				tasks.add(executor.submit(() -> insertPosts(count, userIds, authors, commentCounts, now, random)));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		}
+		finally {
+			reporter.shutdownNow();
+			executor.shutdownNow();
+		}
+		report(start);
+
+		if (drop) {
+			long indexStart = System.nanoTime();
+			createIndexes(User.class);
+			createIndexes(Post.class);
+			log.info("Índices recriados em {} s", Duration.ofNanos(System.nanoTime() - indexStart).toSeconds());
+		}
+	}
+
+	private void insertUsers(ObjectId[] userIds, int from, int to) {
+		List<User> batch = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			batch.add(new User(userIds[i].toHexString(), name(i), "usuario" + i + "@example.com"));
+		}
+		mongoTemplate.bulkOps(BulkMode.UNORDERED, User.class).insert(batch).execute();
+		usersWritten.add(batch.size());
+	}
+
+	private void insertPosts(int count, ObjectId[] userIds, ZipfDistribution authors,
+			ZipfDistribution commentCounts, Instant now, SplittableRandom random) {
+		List<Post> batch = new ArrayList<>(count);
+		long comments = 0;
+		for (int i = 0; i < count; i++) {
+			Instant date = now.minusSeconds(random.nextLong(Math.max(1, days * 86400L)));
+			Post post = new Post(null, date, sentence(random, 3), sentence(random, 12),
+					author(userIds, authors.sample(random)));
+			int postComments = commentCounts.sample(random);
+			for (int c = 0; c < postComments; c++) {
+				Instant commentDate = date.plusSeconds(random.nextLong(1, 7 * 86400L));
+				post.getComments().add(new CommentDTO(sentence(random, 6), commentDate,
+						author(userIds, authors.sample(random))));
+			}
+			comments += postComments;
+			batch.add(post);
+		}
+		mongoTemplate.bulkOps(BulkMode.UNORDERED, Post.class).insert(batch).execute();
+		postsWritten.add(batch.size());
+		commentsWritten.add(comments);
+	}
+
+	private void report(long start) {
+		double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+		long documents = usersWritten.sum() + postsWritten.sum();
+		log.info("usuários {}/{}, posts {}/{}, comentários {} | {} documentos/s ({} comentários/s) em {} s",
+				usersWritten.sum(), users, postsWritten.sum(), posts, commentsWritten.sum(),
+				Math.round(documents / seconds), Math.round(commentsWritten.sum() / seconds), Math.round(seconds));
+	}
+
+	/**
+	 * Cria os índices declarados na entidade (@Indexed, @CompoundIndex, @TextIndexed),
+	 * os mesmos que o auto-index-creation criaria na inicialização.
+	 */
+	private void createIndexes(Class<?> type) {
+		IndexResolver resolver = IndexResolver.create(mappingContext);
+		for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+			mongoTemplate.indexOps(type).createIndex(index);
+		}
+	}
+
+	private static AuthorDTO author(ObjectId[] userIds, int index) {
+		AuthorDTO author = new AuthorDTO();
+		author.setId(userIds[index].toHexString());
+		author.setName(name(index));
+		return author;
+	}
+
+	private static String name(int index) {
+		return NAMES[index % NAMES.length] + " " + index;
+	}
+
+	private static String sentence(SplittableRandom random, int words) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,151 @@
+package com.willianbrendo.workshopmongo.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Migração que remove o array de referências 'posts' dos usuários. Os posts de um usuário
+ * passam a ser encontrados pelo autor embutido (author.id) na coleção de posts.
+ *
+ * Roda com o profile 'migrate-user-posts' (sem servidor web; a aplicação termina no fim).
+ * Percorre os usuários em ordem de _id, em lotes, e a cada lote:
+ *  1. completa o autor dos posts referenciados que ainda não têm author._id (senão eles
+ *     sumiriam do GET /users/{id}/posts), incrementando a versão deles (o ETag muda);
+ *  2. remove o array ($unset) dos usuários do lote;
+ *  3. grava um checkpoint (último _id processado) na coleção 'migrations'.
+ * Se for interrompida, a próxima execução continua do checkpoint; depois de concluída,
+ * rodar de novo não faz nada.
+ * No fim, o cache de posts é limpo. O cache é local a cada processo: instâncias da API que
+ * ficaram no ar durante a migração mantêm os posts antigos até expirarem
+ * (workshop.cache.posts.expire-after-write).
+ */
+@Component
+@Profile(UserPostsMigration.PROFILE)
+public class UserPostsMigration implements ApplicationRunner {
+
+	public static final String PROFILE = "migrate-user-posts";
+
+	private static final Logger log = LoggerFactory.getLogger(UserPostsMigration.class);
+
+	private static final String MIGRATION_ID = "drop-user-posts";
+	private static final String MIGRATIONS = "migrations";
+	private static final String USERS = "users";
+	private static final String POSTS = "posts";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Value("${workshop.migration.batch-size:200}")
+	private int batchSize;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		Document checkpoint = mongoTemplate.findById(MIGRATION_ID, Document.class, MIGRATIONS);
+		if (checkpoint != null && "done".equals(checkpoint.getString("status"))) {
+			log.info("Migração {} já concluída em {}", MIGRATION_ID, checkpoint.get("updatedAt"));
+			return;
+		}
+
+		ObjectId lastId = checkpoint == null ? null : checkpoint.getObjectId("lastId");
+		long users = checkpoint == null ? 0 : checkpoint.getLong("users");
+		long backfilled = checkpoint == null ? 0 : checkpoint.getLong("backfilled");
+		log.info("Migração {} {} (lote de {})", MIGRATION_ID, lastId == null ? "iniciando" : "retomando após " + lastId, batchSize);
+
+		while (true) {
+			List<Document> batch = nextBatch(lastId);
+			if (batch.isEmpty()) {
+				break;
+			}
+			List<ObjectId> ids = new ArrayList<>(batch.size());
+			for (Document user : batch) {
+				backfilled += backfillAuthors(user);
+				ids.add(user.getObjectId("_id"));
+			}
+
+			UpdateResult result = mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)),
+					new Update().unset(POSTS), USERS);
+			users += result.getModifiedCount();
+			lastId = ids.get(ids.size() - 1);
+			saveCheckpoint("running", lastId, users, backfilled);
+			log.info("Migração {}: {} usuários migrados, {} posts com autor completado (último _id {})",
+					MIGRATION_ID, users, backfilled, lastId);
+		}
+
+		saveCheckpoint("done", lastId, users, backfilled);
+		// Os posts completados mudaram de corpo e de versão: nada em cache pode continuar valendo
+		Cache posts = cacheManager.getCache(CacheConfig.POSTS);
+		if (posts != null) {
+			posts.clear();
+		}
+		log.info("Migração {} concluída: {} usuários migrados, {} posts com autor completado", MIGRATION_ID, users, backfilled);
+	}
+
+	/**
+	 * Próximo lote de usuários que ainda têm o array, depois do último _id processado.
+	 * Lê o documento cru (o array não existe mais na entidade User).
+	 */
+	private List<Document> nextBatch(ObjectId lastId) {
+		Criteria criteria = Criteria.where(POSTS).exists(true);
+		if (lastId != null) {
+			criteria.and("_id").gt(lastId);
+		}
+		Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+		query.fields().include("_id", "name", POSTS);
+		return mongoTemplate.find(query, Document.class, USERS);
+	}
+
+	/**
+	 * Completa o autor dos posts referenciados pelo usuário que ainda não têm author._id.
+	 * A gravação é na coleção crua (sem a entidade), então o incremento do @Version é explícito.
+	 * @return Quantos posts foram completados.
+	 */
+	private long backfillAuthors(Document user) {
+		List<Object> postIds = new ArrayList<>();
+		for (Object ref : user.getList(POSTS, Object.class, new ArrayList<>())) {
+			postIds.add(ref instanceof DBRef dbRef ? dbRef.getId() : ((Document) ref).get("$id"));
+		}
+		if (postIds.isEmpty()) {
+			return 0;
+		}
+		Document author = new Document("_id", user.getObjectId("_id")).append("name", user.getString("name"));
+		Query orphans = new Query(Criteria.where("_id").in(postIds).and("author._id").exists(false));
+		return mongoTemplate.updateMulti(orphans, new Update().set("author", author).inc("version", 1), POSTS).getModifiedCount();
+	}
+
+	private void saveCheckpoint(String status, ObjectId lastId, long users, long backfilled) {
+		Document checkpoint = new Document("_id", MIGRATION_ID)
+				.append("status", status)
+				.append("lastId", lastId)
+				.append("users", users)
+				.append("backfilled", backfilled)
+				.append("updatedAt", Instant.now());
+		mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(MIGRATION_ID)), checkpoint,
+				FindAndReplaceOptions.options().upsert(), MIGRATIONS);
+	}
+}
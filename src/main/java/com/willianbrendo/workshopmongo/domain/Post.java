@@ -7,12 +7,26 @@ import java.util.List;
 import java.util.Objects;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.willianbrendo.workshopmongo.dto.AuthorDTO;
 import com.willianbrendo.workshopmongo.dto.CommentDTO;
 
-@Document(collection = "posts") // Mapeia para a coleção "posts"
+@Document(collection = "posts", language = "portuguese") // Mapeia para a coleção "posts" (idioma usado pelo índice de texto)
+// Índice usado pela paginação keyset (GET /posts?limit=...): ordenação e intervalo por (date desc, _id desc)
+@CompoundIndex(name = "date_id", def = "{'date': -1, '_id': -1}")
+// Índice da linha do tempo do usuário (GET /users/{id}/feed): posts de um autor em (date desc, _id desc).
+// Pelo prefixo 'author._id' também atende a propagação de renomeações (AuthorPropagationService).
+@CompoundIndex(name = "author_date_id", def = "{'author._id': 1, 'date': -1, '_id': -1}")
+// Índice dos comentários de um autor (propagação de renomeações)
+@CompoundIndex(name = "comments_author_id", def = "{'comments.author._id': 1}")
 public class Post implements Serializable{
 
 	private static final long serialVersionUID = 1L;
@@ -20,9 +34,29 @@ public class Post implements Serializable{
 	@Id
 	private String id;
 	private Instant date;
+	
+	// @Indexed: a busca por trecho do título (titlesearch) é uma regex sem âncora; com o índice,
+	//           o MongoDB avalia a regex nas chaves do índice em vez de ler todos os documentos.
+	// @TextIndexed: título e corpo formam o índice de texto da busca por relevância (peso maior no título).
+	@Indexed
+	@TextIndexed(weight = 3)
 	private String title;
+	
+	@TextIndexed
 	private String body;
 	
+	// Relevância calculada pelo MongoDB na busca de texto ($meta: "textScore"). Não é gravada no banco
+	// e só aparece no JSON nas respostas da busca.
+	@TextScore
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Float score;
+	
+	// Versão do documento (controle de concorrência otimista): o Spring Data grava 0 na inserção
+	// e incrementa a cada atualização. Vai para o cliente no cabeçalho ETag, não no JSON.
+	@Version
+	@JsonIgnore
+	private Long version;
+	
 	
     private AuthorDTO author; 
     private List<CommentDTO> comments = new ArrayList<>();
@@ -46,6 +80,14 @@ public class Post implements Serializable{
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Instant getDate() {
 		return date;
 	}
@@ -70,6 +112,14 @@ public class Post implements Serializable{
 		this.body = body;
 	}
 
+	public Float getScore() {
+		return score;
+	}
+
+	public void setScore(Float score) {
+		this.score = score;
+	}
+
 	public AuthorDTO getAuthor() {
 		return author;
 	}
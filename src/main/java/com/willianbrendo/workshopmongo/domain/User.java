@@ -1,12 +1,10 @@
 package com.willianbrendo.workshopmongo.domain;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users") // 🎯 Anotação que mapeia esta classe para uma coleção chamada "users" no MongoDB
@@ -20,14 +18,12 @@ public class User implements Serializable{
 	private String name;
     private String email;
     
- // 🎯 NOVO RELACIONAMENTO REFERENCIADO: Lista de Posts
-    // @DBRef: Indica que esta é uma referência. O Spring só carrega esses posts 
-    //         quando você explicitamente pedir (lazy loading por padrão).
-    // mappedBy="author": Esta anotação, embora mais comum no JPA, é usada aqui por 
-    //                     convenção para indicar que o mapeamento é feito pelo lado do 'author' no Post.
-    @DBRef(lazy = true) // lazy = true é o padrão para @DBRef.
-    private List<Post> posts = new ArrayList<>(); // Inicializa a lista para evitar NullPointerException
+    // Versão do documento (controle de concorrência otimista), enviada no cabeçalho ETag
+    @Version
+    private Long version;
     
+    // Os posts do usuário não ficam mais em um array aqui: são buscados pelo autor (author.id)
+    // na coleção de posts. O antigo array 'posts' é removido pela UserPostsMigration.
     
     public User() {
     }
@@ -46,6 +42,14 @@ public class User implements Serializable{
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -63,14 +67,6 @@ public class User implements Serializable{
 	}
 	
 
-	public List<Post> getPosts() {
-		return posts;
-	}
-
-	public void setPosts(List<Post> posts) {
-		this.posts = posts;
-	}
-
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
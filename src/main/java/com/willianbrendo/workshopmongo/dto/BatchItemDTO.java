@@ -0,0 +1,51 @@
+package com.willianbrendo.workshopmongo.dto;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de um item de uma inserção em lote: o ID gerado ou o erro.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemDTO implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private int index;     // Posição do item no array enviado pelo cliente
+	private String id;     // ID gerado (nulo quando o item falhou)
+	private String error;  // Mensagem de erro (nula quando o item foi inserido)
+	
+	public BatchItemDTO() {
+	}
+
+	public BatchItemDTO(int index, String id, String error) {
+		this.index = index;
+		this.id = id;
+		this.error = error;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+}
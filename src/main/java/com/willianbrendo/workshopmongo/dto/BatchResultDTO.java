@@ -0,0 +1,56 @@
+package com.willianbrendo.workshopmongo.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de uma inserção em lote (POST /posts/batch e POST /users/batch).
+ */
+public class BatchResultDTO implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private int inserted;
+	private int failed;
+	private List<BatchItemDTO> items = new ArrayList<>();
+	
+	public BatchResultDTO() {
+	}
+
+	public BatchResultDTO(List<BatchItemDTO> items) {
+		this.items = items;
+		for (BatchItemDTO item : items) {
+			if (item.getError() == null) {
+				inserted++;
+			}
+			else {
+				failed++;
+			}
+		}
+	}
+
+	public int getInserted() {
+		return inserted;
+	}
+
+	public void setInserted(int inserted) {
+		this.inserted = inserted;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<BatchItemDTO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<BatchItemDTO> items) {
+		this.items = items;
+	}
+}
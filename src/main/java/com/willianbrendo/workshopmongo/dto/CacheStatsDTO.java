@@ -0,0 +1,102 @@
+package com.willianbrendo.workshopmongo.dto;
+
+import java.io.Serializable;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public class CacheStatsDTO implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private String name;
+	private boolean enabled;
+	private long size;
+	private long hitCount;
+	private long missCount;
+	private double hitRate;
+	private long evictionCount;
+	
+	public CacheStatsDTO() {
+	}
+	
+	/**
+	 * DTO de um cache desligado (sem estatísticas).
+	 * @param name O nome do cache.
+	 */
+	public CacheStatsDTO(String name) {
+		this.name = name;
+		this.enabled = false;
+	}
+	
+	/**
+	 * Copia as estatísticas do Caffeine para o DTO.
+	 * @param name O nome do cache.
+	 * @param size O número estimado de entradas no cache.
+	 * @param stats As estatísticas acumuladas pelo Caffeine.
+	 */
+	public CacheStatsDTO(String name, long size, CacheStats stats) {
+		this.name = name;
+		this.enabled = true;
+		this.size = size;
+		this.hitCount = stats.hitCount();
+		this.missCount = stats.missCount();
+		this.hitRate = stats.hitRate();
+		this.evictionCount = stats.evictionCount();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	public void setHitRate(double hitRate) {
+		this.hitRate = hitRate;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+}
@@ -0,0 +1,42 @@
+package com.willianbrendo.workshopmongo.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Página de resultados da paginação por cursor (keyset).
+ * O cliente envia o 'nextCursor' no parâmetro 'after' para buscar a próxima página.
+ * Quando 'nextCursor' é nulo, não há mais resultados.
+ */
+public class CursorPageDTO<T> implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private List<T> content = new ArrayList<>();
+    private String nextCursor;
+    
+    public CursorPageDTO() {
+    }
+
+	public CursorPageDTO(List<T> content, String nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,139 @@
+package com.willianbrendo.workshopmongo.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Um comando do MongoDB que passou do limite do profiler, com o resumo do seu explain:
+ * estágios do plano vencedor (COLLSCAN, IXSCAN...) e documentos examinados versus devolvidos.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowQueryDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Instant timestamp;
+	private String database;
+	private String collection;
+	private String commandName;
+	private long durationMs;
+	private String command;
+	private List<String> planStages;
+	private Boolean collectionScan;
+	private Long docsExamined;
+	private Long keysExamined;
+	private Long docsReturned;
+	private String explainError;
+
+	public SlowQueryDTO() {
+	}
+
+	public SlowQueryDTO(Instant timestamp, String database, String collection, String commandName, long durationMs,
+			String command) {
+		this.timestamp = timestamp;
+		this.database = database;
+		this.collection = collection;
+		this.commandName = commandName;
+		this.durationMs = durationMs;
+		this.command = command;
+	}
+
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(Instant timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public String getDatabase() {
+		return database;
+	}
+
+	public void setDatabase(String database) {
+		this.database = database;
+	}
+
+	public String getCollection() {
+		return collection;
+	}
+
+	public void setCollection(String collection) {
+		this.collection = collection;
+	}
+
+	public String getCommandName() {
+		return commandName;
+	}
+
+	public void setCommandName(String commandName) {
+		this.commandName = commandName;
+	}
+
+	public long getDurationMs() {
+		return durationMs;
+	}
+
+	public void setDurationMs(long durationMs) {
+		this.durationMs = durationMs;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	public void setCommand(String command) {
+		this.command = command;
+	}
+
+	public List<String> getPlanStages() {
+		return planStages;
+	}
+
+	public void setPlanStages(List<String> planStages) {
+		this.planStages = planStages;
+	}
+
+	public Boolean getCollectionScan() {
+		return collectionScan;
+	}
+
+	public void setCollectionScan(Boolean collectionScan) {
+		this.collectionScan = collectionScan;
+	}
+
+	public Long getDocsExamined() {
+		return docsExamined;
+	}
+
+	public void setDocsExamined(Long docsExamined) {
+		this.docsExamined = docsExamined;
+	}
+
+	public Long getKeysExamined() {
+		return keysExamined;
+	}
+
+	public void setKeysExamined(Long keysExamined) {
+		this.keysExamined = keysExamined;
+	}
+
+	public Long getDocsReturned() {
+		return docsReturned;
+	}
+
+	public void setDocsReturned(Long docsReturned) {
+		this.docsReturned = docsReturned;
+	}
+
+	public String getExplainError() {
+		return explainError;
+	}
+
+	public void setExplainError(String explainError) {
+		this.explainError = explainError;
+	}
+}
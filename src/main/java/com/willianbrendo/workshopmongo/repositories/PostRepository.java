@@ -1,8 +1,12 @@
 package com.willianbrendo.workshopmongo.repositories;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.willianbrendo.workshopmongo.domain.Post;
@@ -27,4 +31,49 @@ public interface PostRepository extends MongoRepository<Post, String>{
      * @return Uma lista de Posts que atendem ao critério.
      */
     List<Post> findByTitleContainingIgnoreCase(String text);
+    
+    /**
+     * Primeira página da paginação keyset (sem cursor).
+     * O retorno em List evita a consulta de 'count' que o Page faria.
+     * @param pageable Deve conter a ordenação (date desc, _id desc) e o tamanho da página.
+     */
+    List<Post> findAllBy(Pageable pageable);
+    
+    /**
+     * Próxima página da paginação keyset: posts "depois" do cursor na ordem (date desc, _id desc).
+     * É uma consulta de intervalo sobre o índice composto 'date_id', sem skip/offset.
+     * @param date A data do último post da página anterior.
+     * @param id O id do último post da página anterior (desempate entre datas iguais).
+     * @param pageable Deve conter a mesma ordenação e o tamanho da página.
+     */
+    @Query("{ '$or': [ { 'date': { '$lt': ?0 } }, { 'date': ?0, '_id': { '$lt': ?1 } } ] }")
+    List<Post> findPageAfter(Instant date, String id, Pageable pageable);
+    
+    /**
+     * Primeira página da linha do tempo de um autor (posts mais novos primeiro).
+     * @param authorId O id do autor (author.id).
+     * @param pageable Deve conter a ordenação (date desc, _id desc) e o tamanho da página.
+     */
+    List<Post> findByAuthorId(String authorId, Pageable pageable);
+    
+    /**
+     * Próxima página da linha do tempo de um autor: posts anteriores ao cursor na ordem
+     * (date desc, _id desc). É um intervalo sobre o índice composto 'author_date_id',
+     * então o custo não depende de quantos posts o autor tem.
+     * @param authorId O id do autor (author.id).
+     * @param date A data do último post da página anterior.
+     * @param id O id do último post da página anterior (desempate entre datas iguais).
+     * @param pageable Deve conter a mesma ordenação e o tamanho da página.
+     */
+    @Query("{ 'author.id': ?0, '$or': [ { 'date': { '$lt': ?1 } }, { 'date': ?1, '_id': { '$lt': ?2 } } ] }")
+    List<Post> findByAuthorIdBefore(String authorId, Instant date, String id, Pageable pageable);
+    
+    /**
+     * Busca de texto ($text) sobre o índice de texto de título e corpo.
+     * Ordenando o Pageable pela propriedade 'score' (@TextScore), o resultado vem
+     * do mais relevante para o menos relevante.
+     * @param criteria Os termos da busca.
+     * @param pageable A ordenação por relevância e o limite de resultados.
+     */
+    List<Post> findAllBy(TextCriteria criteria, Pageable pageable);
 }
@@ -0,0 +1,45 @@
+package com.willianbrendo.workshopmongo.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+
+import reactor.core.publisher.Flux;
+
+//🎯 Versão reativa do PostRepository (profile 'reactive'): os métodos retornam Flux/Mono
+//   e não bloqueiam a thread enquanto esperam o MongoDB.
+@Repository
+public interface ReactivePostRepository extends ReactiveMongoRepository<Post, String>{
+
+	/**
+     * Mesma busca do PostRepository.findByTitleContainingIgnoreCase, em streaming.
+     */
+    Flux<Post> findByTitleContainingIgnoreCase(String text);
+    
+    /**
+     * Primeira página da paginação keyset (ver PostRepository.findAllBy).
+     */
+    Flux<Post> findAllBy(Pageable pageable);
+    
+    /**
+     * Próxima página da paginação keyset (ver PostRepository.findPageAfter).
+     */
+    @Query("{ '$or': [ { 'date': { '$lt': ?0 } }, { 'date': ?0, '_id': { '$lt': ?1 } } ] }")
+    Flux<Post> findPageAfter(Instant date, String id, Pageable pageable);
+    
+    /**
+     * Primeira página da linha do tempo de um autor (ver PostRepository.findByAuthorId).
+     */
+    Flux<Post> findByAuthorId(String authorId, Pageable pageable);
+    
+    /**
+     * Próxima página da linha do tempo de um autor (ver PostRepository.findByAuthorIdBefore).
+     */
+    @Query("{ 'author.id': ?0, '$or': [ { 'date': { '$lt': ?1 } }, { 'date': ?1, '_id': { '$lt': ?2 } } ] }")
+    Flux<Post> findByAuthorIdBefore(String authorId, Instant date, String id, Pageable pageable);
+}
@@ -0,0 +1,41 @@
+package com.willianbrendo.workshopmongo.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.willianbrendo.workshopmongo.domain.User;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//🎯 Versão reativa do UserRepository (profile 'reactive'): os métodos retornam Flux/Mono
+//   e não bloqueiam a thread enquanto esperam o MongoDB.
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String>{
+
+	/**
+     * Todos os usuários, apenas com os campos do UserDTO (ver UserRepository.SUMMARY_FIELDS).
+     */
+    @Query(value = "{}", fields = UserRepository.SUMMARY_FIELDS)
+    Flux<User> findAllSummaries();
+    
+    /**
+     * Um usuário pelo ID, apenas com os campos do UserDTO.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = UserRepository.SUMMARY_FIELDS)
+    Mono<User> findSummaryById(String id);
+    
+    /**
+     * Primeira página da paginação keyset, ordenada por _id.
+     */
+    @Query(fields = UserRepository.SUMMARY_FIELDS)
+    Flux<User> findAllBy(Pageable pageable);
+    
+    /**
+     * Próxima página da paginação keyset: usuários com _id maior que o cursor.
+     */
+    @Query(fields = UserRepository.SUMMARY_FIELDS)
+    Flux<User> findByIdGreaterThan(String id, Pageable pageable);
+}
@@ -1,6 +1,11 @@
 package com.willianbrendo.workshopmongo.repositories;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.willianbrendo.workshopmongo.domain.User;
@@ -13,4 +18,39 @@ public interface UserRepository extends MongoRepository<User, String>{
 
 	// Esta interface herda automaticamente todos os métodos CRUD básicos (findAll, findById, save, delete, etc.)
     // Você não precisa escrever nenhum código aqui!
+	
+	// 🎯 Projeção com apenas os campos do UserDTO (o _id sempre vem). O antigo array 'posts' (referências),
+	//    que ainda existe em usuários não migrados e pode ser enorme, não trafega do banco para a aplicação.
+	//    A 'version' vem junto porque alimenta o ETag do GET /users/{id}.
+	String SUMMARY_FIELDS = "{ 'name': 1, 'email': 1, 'version': 1 }";
+	
+	/**
+     * Busca todos os usuários, trazendo apenas os campos do UserDTO.
+     * Os objetos User retornados trazem id, nome, email e versão (os posts são buscados pelo autor).
+     */
+    @Query(value = "{}", fields = SUMMARY_FIELDS)
+    List<User> findAllSummaries();
+	
+	/**
+     * Busca um usuário pelo ID, trazendo apenas os campos do UserDTO.
+     * O objeto User retornado traz id, nome, email e versão (os posts são buscados pelo autor).
+     */
+    @Query(value = "{ '_id': ?0 }", fields = SUMMARY_FIELDS)
+    Optional<User> findSummaryById(String id);
+	
+	/**
+     * Primeira página da paginação keyset (sem cursor), ordenada por _id.
+     * O retorno em List evita a consulta de 'count' que o Page faria.
+     * Traz apenas os campos do UserDTO.
+     */
+    @Query(fields = SUMMARY_FIELDS)
+    List<User> findAllBy(Pageable pageable);
+    
+    /**
+     * Próxima página da paginação keyset: usuários com _id maior que o cursor.
+     * Consulta de intervalo sobre o índice padrão de _id, sem skip/offset.
+     * Traz apenas os campos do UserDTO.
+     */
+    @Query(fields = SUMMARY_FIELDS)
+    List<User> findByIdGreaterThan(String id, Pageable pageable);
 }
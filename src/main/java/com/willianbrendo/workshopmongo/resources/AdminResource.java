@@ -0,0 +1,63 @@
+package com.willianbrendo.workshopmongo.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.willianbrendo.workshopmongo.dto.CacheStatsDTO;
+import com.willianbrendo.workshopmongo.dto.SlowQueryDTO;
+import com.willianbrendo.workshopmongo.services.SlowQueryProfiler;
+
+@RestController
+@RequestMapping(value = "/admin") // Endpoints de diagnóstico da aplicação
+public class AdminResource {
+
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	private SlowQueryProfiler slowQueryProfiler;
+
+	/**
+	 * Endpoint com as estatísticas dos caches de entidades (acertos, falhas, remoções).
+	 * Mapeado para requisições GET em /admin/caches.
+	 * @return ResponseEntity<List<CacheStatsDTO>>: Um item por cache configurado.
+	 */
+	@GetMapping(value = "/caches")
+	public ResponseEntity<List<CacheStatsDTO>> caches() {
+		
+		List<CacheStatsDTO> list = new ArrayList<>();
+		for (String name : cacheManager.getCacheNames()) {
+			Cache cache = cacheManager.getCache(name);
+			
+			// Caches desligados no application.properties são NoOpCache e não têm estatísticas
+			if (cache instanceof CaffeineCache caffeine) {
+				com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeine.getNativeCache();
+				list.add(new CacheStatsDTO(name, nativeCache.estimatedSize(), nativeCache.stats()));
+			}
+			else {
+				list.add(new CacheStatsDTO(name));
+			}
+		}
+		return ResponseEntity.ok().body(list);
+	}
+	
+	/**
+	 * Endpoint com os últimos comandos do MongoDB que passaram do limite do profiler
+	 * (workshop.profiler.threshold), com o resumo do explain de cada um.
+	 * Mapeado para requisições GET em /admin/slow-queries.
+	 * @return ResponseEntity<List<SlowQueryDTO>>: Do comando mais recente para o mais antigo.
+	 */
+	@GetMapping(value = "/slow-queries")
+	public ResponseEntity<List<SlowQueryDTO>> slowQueries() {
+		return ResponseEntity.ok().body(slowQueryProfiler.findAll());
+	}
+}
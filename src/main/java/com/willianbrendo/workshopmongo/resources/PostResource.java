@@ -3,21 +3,38 @@ package com.willianbrendo.workshopmongo.resources;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.resources.util.DateParams;
+import com.willianbrendo.workshopmongo.resources.util.ETags;
+import com.willianbrendo.workshopmongo.resources.util.NdjsonWriter;
 import com.willianbrendo.workshopmongo.services.PostService;
 
+@ConditionalOnWebApplication(type = Type.SERVLET) // No profile 'reactive' quem atende é a versão WebFlux
 @RestController // 🎯 Anotação que combina @Controller e @ResponseBody. Indica que a classe é um
 				// Controller REST.
 @RequestMapping(value = "/posts") 
@@ -25,6 +42,13 @@ public class PostResource {
 
 	@Autowired // Injeção de dependência da camada de Serviço
 	private PostService service;
+	
+	@Autowired // ObjectMapper configurado pelo Spring Boot (o mesmo usado nas respostas JSON)
+	private ObjectMapper objectMapper;
+	
+	// De quantos em quantos documentos a exportação envia a saída ao cliente
+	@Value("${workshop.export.batch-size:500}")
+	private int exportBatchSize;
 
 	/**
 	 * Endpoint para buscar todos os post. Mapeado para requisições GET em
@@ -46,21 +70,61 @@ public class PostResource {
 		return ResponseEntity.ok().body(list);
 	}
 	
+	/**
+	 * Endpoint de exportação em streaming de todos os posts.
+	 * Mapeado para GET /posts/export. A resposta é NDJSON (application/x-ndjson):
+	 * um documento JSON por linha, escrito conforme chega do cursor do MongoDB.
+	 * O uso de memória fica constante, independente do tamanho da coleção.
+	 * @return ResponseEntity<StreamingResponseBody> com status 200 OK.
+	 */
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> export() {
+		
+		// O corpo é escrito depois que o método retorna, em uma thread assíncrona do Spring MVC
+		StreamingResponseBody body = out -> NdjsonWriter.write(objectMapper, service.streamAll(), out, exportBatchSize);
+		
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	/**
+	 * Endpoint para buscar os posts paginados por cursor (keyset), do mais novo para o mais antigo.
+	 * Mapeado para GET /posts?limit=20&after=cursor. A presença do parâmetro 'limit'
+	 * ativa a paginação; sem ele, o GET /posts continua retornando a lista completa.
+	 * @param limit O tamanho da página.
+	 * @param after O 'nextCursor' retornado pela página anterior (opcional).
+	 * @return ResponseEntity<CursorPageDTO<Post>>: A página e o cursor da próxima.
+	 */
+	@GetMapping(params = "limit")
+	public ResponseEntity<CursorPageDTO<Post>> findPage(@RequestParam(value = "limit") int limit,
+			@RequestParam(value = "after", required = false) String after) {
+		
+		CursorPageDTO<Post> page = service.findPage(after, limit);
+		return ResponseEntity.ok().body(page);
+	}
+	
 	/**
      * Endpoint para buscar um post por ID.
      * Mapeado para requisições GET em /posts/{id}.
+     * A resposta leva o ETag com a versão do post; se o cliente enviar If-None-Match
+     * com a versão atual, responde 304 Not Modified sem corpo.
      * @param id O ID (String) passado na URL.
-     * @return ResponseEntity<Post> com status 200 OK.
+     * @return ResponseEntity<Post> com status 200 OK (ou 304).
      */
     @GetMapping(value = "/{id}") // 🎯 Mapeia para um GET com uma variável 'id' na URL
-    public ResponseEntity<Post> findById(@PathVariable String id) {
+    public ResponseEntity<Post> findById(@PathVariable String id, WebRequest request) {
         
         // 1. Chama o método findById() na camada de Serviço.
         // Retorna a Entidade User ou lança a exceção 404.
         Post obj = service.findById(id);
         
-        // 3. Retorna a resposta com o DTO e status 200 OK.
-        return ResponseEntity.ok().body(obj);
+        // 2. Versão inalterada: o Spring já respondeu 304, o post não é serializado
+        String etag = ETags.of(obj.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        // 3. Retorna a resposta com o post, o ETag e status 200 OK.
+        return ResponseEntity.ok().eTag(etag).body(obj);
     }
     
     
@@ -89,18 +153,35 @@ public class PostResource {
         return ResponseEntity.created(uri).build();
     }   
     
+    /**
+     * Endpoint para inserir vários posts de uma vez.
+     * Mapeado para requisições POST em /posts/batch, com um array JSON no corpo.
+     * @param list Os posts a inserir.
+     * @return ResponseEntity<BatchResultDTO> com o ID ou o erro de cada item e status 200 OK.
+     */
+    @PostMapping(value = "/batch")
+    public ResponseEntity<BatchResultDTO> insertBatch(@RequestBody List<Post> list) {
+        
+        BatchResultDTO result = service.insertBatch(list);
+        
+        return ResponseEntity.ok().body(result);
+    }
+    
     /**
      * Endpoint para deletar um usuário por ID.
      * Mapeado para requisições DELETE em /posts/{id}.
+     * Com If-Match, só exclui se a versão do post ainda for a informada (senão 412).
      * @param id O ID (String) passado na URL.
+     * @param ifMatch O ETag esperado (opcional).
      * @return ResponseEntity<Void> com status 204 No Content (sucesso sem corpo).
      */
     @DeleteMapping(value = "/{id}") // 🎯 Mapeia para DELETE com a variável 'id' na URL
-    public ResponseEntity<Void> delete(@PathVariable String id) {
+    public ResponseEntity<Void> delete(@PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         // 1. Chama o método delete() na camada de Serviço.
-        // O tratamento 404 já está embutido na chamada do serviço.
-        service.delete(id);
+        // O tratamento 404 (e 412) já está embutido na chamada do serviço.
+        service.delete(id, ETags.parseIfMatch(ifMatch));
         
         // 2. Retorna a resposta com o status 204 No Content. 
         // O .build() cria a resposta sem corpo.
@@ -111,21 +192,42 @@ public class PostResource {
     /**
      * Endpoint para atualizar um usuário existente.
      * Mapeado para requisições PUT em /posts/{id}.
+     * Com If-Match, só atualiza se a versão do post ainda for a informada (senão 412),
+     * evitando que uma edição concorrente seja sobrescrita.
      * @param id O ID (String) do post a ser atualizado.
-     * @return ResponseEntity<Void> com status 204 No Content (sucesso sem corpo).
+     * @param ifMatch O ETag esperado (opcional).
+     * @return ResponseEntity<Void> com status 204 No Content e o novo ETag.
      */
     @PutMapping(value = "/{id}") // 🎯 Mapeia para PUT com a variável 'id' na URL
-    public ResponseEntity<Void> update(@RequestBody Post obj, @PathVariable String id) {
+    public ResponseEntity<Void> update(@RequestBody Post obj, @PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // 2. Garante que a Entidade tenha o ID correto (vindo da URL)
         obj.setId(id);
         
-        // 3. Chama o método update do Service para buscar, atualizar e salvar
-        service.update(id, obj);
+        // 3. Chama o método update do Service (atualização atômica, uma única ida ao banco)
+        obj = service.update(id, obj, ETags.parseIfMatch(ifMatch));
         
         // 4. Retorna o status 204 No Content para indicar sucesso sem corpo.
         // Se você quisesse retornar o objeto atualizado (prática aceitável),
         // o retorno seria ResponseEntity<Post> e o status 200 OK.
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().eTag(ETags.of(obj.getVersion())).build();
+    }
+    
+    /**
+     * Endpoint para atualizar parcialmente um post.
+     * Mapeado para requisições PATCH em /posts/{id}. Só os campos presentes no JSON são alterados.
+     * Aceita If-Match como o PUT.
+     * @param id O ID (String) do post a ser atualizado.
+     * @param ifMatch O ETag esperado (opcional).
+     * @return ResponseEntity<Void> com status 204 No Content e o novo ETag.
+     */
+    @PatchMapping(value = "/{id}")
+    public ResponseEntity<Void> patch(@RequestBody Post obj, @PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        
+        obj = service.patch(id, obj, ETags.parseIfMatch(ifMatch));
+        
+        return ResponseEntity.noContent().eTag(ETags.of(obj.getVersion())).build();
     }
     
     /**
@@ -146,5 +248,86 @@ public class PostResource {
         
         return ResponseEntity.ok().body(list);
     }
+    
+    /**
+     * Endpoint de busca combinada: posts entre duas datas com os termos no título ou no corpo
+     * (índice de texto, como o /search), do mais novo para o mais antigo, paginados por cursor.
+     * Mapeado para GET /posts/fullsearch?text=bom&minDate=2018-03-01&maxDate=2018-03-31&limit=20&after=cursor
+     * @param text Termos procurados no título ou no corpo (opcional).
+     * @param minDate Data mínima, inclusiva: dia (yyyy-MM-dd) ou instante ISO-8601 (opcional).
+     * @param maxDate Data máxima: um dia é incluído inteiro; um instante é exclusivo (opcional).
+     * @param limit O tamanho da página.
+     * @param after O 'nextCursor' retornado pela página anterior (opcional).
+     * @return ResponseEntity<CursorPageDTO<Post>>: A página e o cursor da próxima.
+     */
+    @GetMapping(value = "/fullsearch")
+    public ResponseEntity<CursorPageDTO<Post>> fullSearch(@RequestParam(value = "text", defaultValue = "") String text,
+    		@RequestParam(value = "minDate", required = false) String minDate,
+    		@RequestParam(value = "maxDate", required = false) String maxDate,
+    		@RequestParam(value = "limit", defaultValue = "20") int limit,
+    		@RequestParam(value = "after", required = false) String after) {
+        
+        CursorPageDTO<Post> page = service.fullSearch(text, DateParams.start(minDate, "minDate"),
+        		DateParams.end(maxDate, "maxDate"), after, limit);
+        
+        return ResponseEntity.ok().body(page);
+    }
+    
+    /**
+     * Endpoint de busca de texto completo (título e corpo), ordenada por relevância.
+     * Mapeado para GET /posts/search?text=viagem&limit=20
+     * @param text Os termos da busca.
+     * @param limit O número máximo de resultados.
+     * @return ResponseEntity<List<Post>>: Os posts encontrados, com o campo 'score'.
+     */
+    @GetMapping(value = "/search")
+    public ResponseEntity<List<Post>> search(@RequestParam(value = "text") String text,
+    		@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        
+        List<Post> list = service.search(text, limit);
+        
+        return ResponseEntity.ok().body(list);
+    }
+    
+    /**
+     * Endpoint para adicionar um comentário a um post.
+     * Mapeado para requisições POST em /posts/{id}/comments, com o CommentDTO no corpo.
+     * @param id O ID (String) do post.
+     * @return ResponseEntity<Void> com status 201 Created e o cabeçalho 'Location' da lista de comentários,
+     *         ou 202 Accepted se o comentário ficou no buffer de gravação adiada (write-behind).
+     */
+    @PostMapping(value = "/{id}/comments")
+    public ResponseEntity<Void> addComment(@PathVariable String id, @RequestBody CommentDTO comment) {
+        
+        // Inserção atômica no array do post (sem ler nem regravar o post inteiro), ou no buffer do write-behind
+        service.addComment(id, comment);
+        
+        // A URI atual (/posts/{id}/comments) é onde o comentário pode ser consultado
+        java.net.URI uri = ServletUriComponentsBuilder.fromCurrentRequest().build().toUri();
+        
+        // Write-behind: o comentário foi aceito, mas ainda não está gravado
+        if (service.isCommentWriteBehind()) {
+            return ResponseEntity.accepted().location(uri).build();
+        }
+        return ResponseEntity.created(uri).build();
+    }
+    
+    /**
+     * Endpoint para buscar os comentários de um post, paginados.
+     * Mapeado para GET /posts/{id}/comments?offset=0&limit=20
+     * @param id O ID (String) do post.
+     * @param offset Posição inicial na lista de comentários.
+     * @param limit Quantidade máxima de comentários retornados.
+     * @return ResponseEntity<List<CommentDTO>>: Os comentários da página.
+     */
+    @GetMapping(value = "/{id}/comments")
+    public ResponseEntity<List<CommentDTO>> findComments(@PathVariable String id,
+    		@RequestParam(value = "offset", defaultValue = "0") int offset,
+    		@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        
+        List<CommentDTO> list = service.findComments(id, offset, limit);
+        
+        return ResponseEntity.ok().body(list);
+    }
 
 }
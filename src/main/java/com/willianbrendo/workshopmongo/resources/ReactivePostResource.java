@@ -0,0 +1,98 @@
+package com.willianbrendo.workshopmongo.resources;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.resources.util.ETags;
+import com.willianbrendo.workshopmongo.services.ReactivePostService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoints /posts da stack reativa (WebFlux). Só existe quando a aplicação sobe
+ * como reativa (profile 'reactive'); no modo servlet quem atende é o PostResource.
+ */
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequestMapping(value = "/posts")
+public class ReactivePostResource {
+
+	@Autowired
+	private ReactivePostService service;
+
+	/**
+	 * GET /posts: todos os posts em streaming. Com 'Accept: application/x-ndjson' cada post
+	 * é enviado em uma linha assim que chega do MongoDB; a leitura do cursor acompanha
+	 * a velocidade do cliente (backpressure).
+	 */
+	@GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<Post> findAll() {
+		return service.findAll();
+	}
+
+	/**
+	 * GET /posts?limit=20&after=cursor: paginação por cursor (keyset).
+	 */
+	@GetMapping(params = "limit")
+	public Mono<CursorPageDTO<Post>> findPage(@RequestParam(value = "limit") int limit,
+			@RequestParam(value = "after", required = false) String after) {
+		return service.findPage(after, limit);
+	}
+
+	/**
+	 * GET /posts/{id} com ETag (versão do post). O WebFlux responde 304 sozinho
+	 * quando o If-None-Match do cliente bate com o ETag, sem serializar o post.
+	 */
+	@GetMapping(value = "/{id}")
+	public Mono<ResponseEntity<Post>> findById(@PathVariable String id) {
+		return service.findById(id).map(obj -> ResponseEntity.ok().eTag(ETags.of(obj.getVersion())).body(obj));
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<Void>> insert(@RequestBody Post obj, ServerHttpRequest request) {
+		return service.insert(obj).map(saved -> {
+			URI uri = UriComponentsBuilder.fromUri(request.getURI()).path("/{id}").buildAndExpand(saved.getId()).toUri();
+			return ResponseEntity.created(uri).build();
+		});
+	}
+
+	@DeleteMapping(value = "/{id}")
+	public Mono<ResponseEntity<Void>> delete(@PathVariable String id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return service.delete(id, ETags.parseIfMatch(ifMatch)).then(Mono.just(ResponseEntity.noContent().build()));
+	}
+
+	@PutMapping(value = "/{id}")
+	public Mono<ResponseEntity<Void>> update(@RequestBody Post obj, @PathVariable String id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		obj.setId(id);
+		return service.update(id, obj, ETags.parseIfMatch(ifMatch))
+				.map(saved -> ResponseEntity.noContent().eTag(ETags.of(saved.getVersion())).build());
+	}
+
+	@GetMapping(value = "/titlesearch", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<Post> findByTitle(@RequestParam(value = "text", defaultValue = "") String text) {
+		return service.findByTitle(text);
+	}
+}
@@ -0,0 +1,116 @@
+package com.willianbrendo.workshopmongo.resources;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.dto.UserDTO;
+import com.willianbrendo.workshopmongo.resources.util.ETags;
+import com.willianbrendo.workshopmongo.services.ReactiveUserService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoints /users da stack reativa (WebFlux). Só existe quando a aplicação sobe
+ * como reativa (profile 'reactive'); no modo servlet quem atende é o UserResource.
+ */
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequestMapping(value = "/users")
+public class ReactiveUserResource {
+
+	@Autowired
+	private ReactiveUserService service;
+
+	/**
+	 * GET /users: todos os usuários (UserDTO) em streaming, com backpressure.
+	 */
+	@GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<UserDTO> findAll() {
+		return service.findAllSummaries().map(x -> new UserDTO(x));
+	}
+
+	/**
+	 * GET /users?limit=20&after=cursor: paginação por cursor (keyset).
+	 */
+	@GetMapping(params = "limit")
+	public Mono<CursorPageDTO<UserDTO>> findPage(@RequestParam(value = "limit") int limit,
+			@RequestParam(value = "after", required = false) String after) {
+		return service.findPage(after, limit).map(page -> new CursorPageDTO<>(
+				page.getContent().stream().map(x -> new UserDTO(x)).toList(), page.getNextCursor()));
+	}
+
+	/**
+	 * GET /users/{id} com ETag (versão do usuário). O WebFlux responde 304 sozinho
+	 * quando o If-None-Match do cliente bate com o ETag, sem serializar o DTO.
+	 */
+	@GetMapping(value = "/{id}")
+	public Mono<ResponseEntity<UserDTO>> findById(@PathVariable String id) {
+		return service.findSummaryById(id).map(x -> ResponseEntity.ok().eTag(ETags.of(x.getVersion())).body(new UserDTO(x)));
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<Void>> insert(@RequestBody UserDTO objDto, ServerHttpRequest request) {
+		return service.insert(fromDTO(objDto)).map(saved -> {
+			URI uri = UriComponentsBuilder.fromUri(request.getURI()).path("/{id}").buildAndExpand(saved.getId()).toUri();
+			return ResponseEntity.created(uri).build();
+		});
+	}
+
+	@DeleteMapping(value = "/{id}")
+	public Mono<ResponseEntity<Void>> delete(@PathVariable String id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return service.delete(id, ETags.parseIfMatch(ifMatch)).then(Mono.just(ResponseEntity.noContent().build()));
+	}
+
+	@PutMapping(value = "/{id}")
+	public Mono<ResponseEntity<Void>> update(@RequestBody UserDTO objDto, @PathVariable String id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		User obj = fromDTO(objDto);
+		obj.setId(id);
+		return service.update(id, obj, ETags.parseIfMatch(ifMatch))
+				.map(saved -> ResponseEntity.noContent().eTag(ETags.of(saved.getVersion())).build());
+	}
+
+	@GetMapping(value = "/{id}/posts", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<Post> findPosts(@PathVariable String id,
+			@RequestParam(value = "offset", defaultValue = "0") int offset,
+			@RequestParam(value = "limit", defaultValue = "20") int limit) {
+		return service.findPosts(id, offset, limit);
+	}
+
+	/**
+	 * GET /users/{id}/feed?limit=20&before=cursor: linha do tempo do usuário (keyset).
+	 */
+	@GetMapping(value = "/{id}/feed")
+	public Mono<CursorPageDTO<Post>> findFeed(@PathVariable String id,
+			@RequestParam(value = "before", required = false) String before,
+			@RequestParam(value = "limit", defaultValue = "20") int limit) {
+		return service.findFeed(id, before, limit);
+	}
+
+	private User fromDTO(UserDTO objDto) {
+		return new User(objDto.getId(), objDto.getName(), objDto.getEmail());
+	}
+}
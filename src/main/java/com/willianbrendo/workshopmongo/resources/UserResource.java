@@ -4,22 +4,38 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willianbrendo.workshopmongo.domain.Post;
 import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
 import com.willianbrendo.workshopmongo.dto.UserDTO;
+import com.willianbrendo.workshopmongo.resources.util.ETags;
+import com.willianbrendo.workshopmongo.resources.util.NdjsonWriter;
 import com.willianbrendo.workshopmongo.services.UserService;
 
+@ConditionalOnWebApplication(type = Type.SERVLET) // No profile 'reactive' quem atende é a versão WebFlux
 @RestController // 🎯 Anotação que combina @Controller e @ResponseBody. Indica que a classe é um
 				// Controller REST.
 @RequestMapping(value = "/users") // 🎯 Anotação que define o caminho base (endpoint) para todos os métodos desta
@@ -28,6 +44,13 @@ public class UserResource {
 
 	@Autowired // Injeção de dependência da camada de Serviço
 	private UserService service;
+	
+	@Autowired // ObjectMapper configurado pelo Spring Boot (o mesmo usado nas respostas JSON)
+	private ObjectMapper objectMapper;
+	
+	// De quantos em quantos documentos a exportação envia a saída ao cliente
+	@Value("${workshop.export.batch-size:500}")
+	private int exportBatchSize;
 
 	/**
 	 * Endpoint para buscar todos os usuários. Mapeado para requisições GET em
@@ -40,7 +63,8 @@ public class UserResource {
 
 		// 1. Chama o método findAll() na camada de Serviço (que acessa o
 		// Repositório/MongoDB)
-		List<User> list = service.findAll();
+		// Projeção: só id, nome e email vêm do banco (o array de posts fica de fora)
+		List<User> list = service.findAllSummaries();
 
 		// 2. 🎯 Converte a lista de User (Entidade) para List de UserDTO
 		// - list.stream(): Cria um stream (fluxo de dados).
@@ -55,24 +79,67 @@ public class UserResource {
 		return ResponseEntity.ok().body(listDto);
 	}
 	
+	/**
+	 * Endpoint de exportação em streaming de todos os usuários (como UserDTO).
+	 * Mapeado para GET /users/export. A resposta é NDJSON (application/x-ndjson):
+	 * um documento JSON por linha, escrito conforme chega do cursor do MongoDB.
+	 * O uso de memória fica constante, independente do tamanho da coleção.
+	 * @return ResponseEntity<StreamingResponseBody> com status 200 OK.
+	 */
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> export() {
+		
+		// O corpo é escrito depois que o método retorna, em uma thread assíncrona do Spring MVC
+		StreamingResponseBody body = out -> NdjsonWriter.write(objectMapper, service.streamAll().map(x -> new UserDTO(x)), out, exportBatchSize);
+		
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	/**
+	 * Endpoint para buscar os usuários paginados por cursor (keyset), em ordem de ID.
+	 * Mapeado para GET /users?limit=20&after=cursor. A presença do parâmetro 'limit'
+	 * ativa a paginação; sem ele, o GET /users continua retornando a lista completa.
+	 * @param limit O tamanho da página.
+	 * @param after O 'nextCursor' retornado pela página anterior (opcional).
+	 * @return ResponseEntity<CursorPageDTO<UserDTO>>: A página e o cursor da próxima.
+	 */
+	@GetMapping(params = "limit")
+	public ResponseEntity<CursorPageDTO<UserDTO>> findPage(@RequestParam(value = "limit") int limit,
+			@RequestParam(value = "after", required = false) String after) {
+		
+		CursorPageDTO<User> page = service.findPage(after, limit);
+		
+		// Converte o conteúdo da página para DTO, mantendo o cursor
+		List<UserDTO> listDto = page.getContent().stream().map(x -> new UserDTO(x)).collect(Collectors.toList());
+		return ResponseEntity.ok().body(new CursorPageDTO<>(listDto, page.getNextCursor()));
+	}
+	
 	/**
      * Endpoint para buscar um usuário por ID.
      * Mapeado para requisições GET em /users/{id}.
+     * A resposta leva o ETag com a versão do usuário; se o cliente enviar If-None-Match
+     * com a versão atual, responde 304 Not Modified sem corpo.
      * @param id O ID (String) passado na URL.
-     * @return ResponseEntity<UserDTO> com status 200 OK.
+     * @return ResponseEntity<UserDTO> com status 200 OK (ou 304).
      */
     @GetMapping(value = "/{id}") // 🎯 Mapeia para um GET com uma variável 'id' na URL
-    public ResponseEntity<UserDTO> findById(@PathVariable String id) {
+    public ResponseEntity<UserDTO> findById(@PathVariable String id, WebRequest request) {
         
-        // 1. Chama o método findById() na camada de Serviço.
+        // 1. Chama o método findSummaryById() na camada de Serviço (projeção só com os campos do DTO).
         // Retorna a Entidade User ou lança a exceção 404.
-        User obj = service.findById(id);
+        User obj = service.findSummaryById(id);
+        
+        // Versão inalterada: o Spring já respondeu 304, o DTO nem é montado
+        String etag = ETags.of(obj.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         
         // 2. Converte a Entidade User para o DTO.
         UserDTO objDto = new UserDTO(obj);
         
-        // 3. Retorna a resposta com o DTO e status 200 OK.
-        return ResponseEntity.ok().body(objDto);
+        // 3. Retorna a resposta com o DTO, o ETag e status 200 OK.
+        return ResponseEntity.ok().eTag(etag).body(objDto);
     }
     
     
@@ -105,6 +172,23 @@ public class UserResource {
         return ResponseEntity.created(uri).build();
     }
 
+    /**
+     * Endpoint para inserir vários usuários de uma vez.
+     * Mapeado para requisições POST em /users/batch, com um array JSON de UserDTO no corpo.
+     * @param listDto Os DTOs dos usuários a inserir.
+     * @return ResponseEntity<BatchResultDTO> com o ID ou o erro de cada item e status 200 OK.
+     */
+    @PostMapping(value = "/batch")
+    public ResponseEntity<BatchResultDTO> insertBatch(@RequestBody List<UserDTO> listDto) {
+        
+        // Converte cada DTO para a Entidade User (itens nulos seguem nulos e viram erro no resultado)
+        List<User> list = listDto.stream().map(x -> x == null ? null : fromDTO(x)).collect(Collectors.toList());
+        
+        BatchResultDTO result = service.insertBatch(list);
+        
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * Método auxiliar para converter UserDTO para a Entidade User.
      * @param objDto O DTO a ser convertido.
@@ -121,15 +205,18 @@ public class UserResource {
     /**
      * Endpoint para deletar um usuário por ID.
      * Mapeado para requisições DELETE em /users/{id}.
+     * Com If-Match, só exclui se a versão do usuário ainda for a informada (senão 412).
      * @param id O ID (String) passado na URL.
+     * @param ifMatch O ETag esperado (opcional).
      * @return ResponseEntity<Void> com status 204 No Content (sucesso sem corpo).
      */
     @DeleteMapping(value = "/{id}") // 🎯 Mapeia para DELETE com a variável 'id' na URL
-    public ResponseEntity<Void> delete(@PathVariable String id) {
+    public ResponseEntity<Void> delete(@PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         // 1. Chama o método delete() na camada de Serviço.
-        // O tratamento 404 já está embutido na chamada do serviço.
-        service.delete(id);
+        // O tratamento 404 (e 412) já está embutido na chamada do serviço.
+        service.delete(id, ETags.parseIfMatch(ifMatch));
         
         // 2. Retorna a resposta com o status 204 No Content. 
         // O .build() cria a resposta sem corpo.
@@ -142,10 +229,12 @@ public class UserResource {
      * Mapeado para requisições PUT em /users/{id}.
      * @param id O ID (String) do usuário a ser atualizado.
      * @param objDto O DTO com os novos dados no corpo da requisição (JSON).
-     * @return ResponseEntity<Void> com status 204 No Content (sucesso sem corpo).
+     * @param ifMatch O ETag esperado (opcional): se a versão mudou, responde 412.
+     * @return ResponseEntity<Void> com status 204 No Content e o novo ETag.
      */
     @PutMapping(value = "/{id}") // 🎯 Mapeia para PUT com a variável 'id' na URL
-    public ResponseEntity<Void> update(@RequestBody UserDTO objDto, @PathVariable String id) {
+    public ResponseEntity<Void> update(@RequestBody UserDTO objDto, @PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         // 1. Converte o DTO recebido para a Entidade User
         User obj = fromDTO(objDto);
@@ -153,29 +242,69 @@ public class UserResource {
         // 2. Garante que a Entidade tenha o ID correto (vindo da URL)
         obj.setId(id);
         
-        // 3. Chama o método update do Service para buscar, atualizar e salvar
-        service.update(id, obj);
+        // 3. Chama o método update do Service (atualização atômica, uma única ida ao banco)
+        obj = service.update(id, obj, ETags.parseIfMatch(ifMatch));
         
         // 4. Retorna o status 204 No Content para indicar sucesso sem corpo.
         // Se você quisesse retornar o objeto atualizado (prática aceitável),
         // o retorno seria ResponseEntity<UserDTO> e o status 200 OK.
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().eTag(ETags.of(obj.getVersion())).build();
     }
     
     /**
-     * Endpoint para buscar todos os posts de um usuário específico.
-     * Mapeado para requisições GET em /users/{id}/posts.
+     * Endpoint para atualizar parcialmente um usuário.
+     * Mapeado para requisições PATCH em /users/{id}. Só os campos presentes no JSON são alterados.
+     * @param id O ID (String) do usuário a ser atualizado.
+     * @param objDto O DTO com os campos a alterar.
+     * @param ifMatch O ETag esperado (opcional): se a versão mudou, responde 412.
+     * @return ResponseEntity<Void> com status 204 No Content e o novo ETag.
+     */
+    @PatchMapping(value = "/{id}")
+    public ResponseEntity<Void> patch(@RequestBody UserDTO objDto, @PathVariable String id,
+    		@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        
+        User obj = service.patch(id, fromDTO(objDto), ETags.parseIfMatch(ifMatch));
+        
+        return ResponseEntity.noContent().eTag(ETags.of(obj.getVersion())).build();
+    }
+    
+    /**
+     * Endpoint para buscar os posts de um usuário específico, paginados.
+     * Mapeado para requisições GET em /users/{id}/posts?offset=0&limit=20.
+     * Os posts são resolvidos em uma única consulta, na ordem em que foram adicionados ao usuário.
      * @param id O ID (String) do usuário.
+     * @param offset Posição inicial na lista de posts do usuário.
+     * @param limit Quantidade máxima de posts retornados.
      * @return ResponseEntity<List<Post>>: A lista de posts do usuário.
      */
     @GetMapping(value = "/{id}/posts") 
-    public ResponseEntity<List<Post>> findPosts(@PathVariable String id) {
+    public ResponseEntity<List<Post>> findPosts(@PathVariable String id,
+    		@RequestParam(value = "offset", defaultValue = "0") int offset,
+    		@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        
+        // O Service já lida com o 404 e resolve as referências @DBRef em lote
+        List<Post> list = service.findPosts(id, offset, limit);
+        
+        return ResponseEntity.ok().body(list);
+    }
+    
+    /**
+     * Endpoint da linha do tempo de um usuário: os posts dele, do mais novo para o mais antigo,
+     * paginados por cursor (keyset).
+     * Mapeado para requisições GET em /users/{id}/feed?limit=20&before=cursor.
+     * @param id O ID (String) do usuário.
+     * @param before O 'nextCursor' retornado pela página anterior (opcional).
+     * @param limit O tamanho da página.
+     * @return ResponseEntity<CursorPageDTO<Post>>: A página e o cursor da próxima.
+     */
+    @GetMapping(value = "/{id}/feed")
+    public ResponseEntity<CursorPageDTO<Post>> findFeed(@PathVariable String id,
+    		@RequestParam(value = "before", required = false) String before,
+    		@RequestParam(value = "limit", defaultValue = "20") int limit) {
         
-        // 1. Busca o usuário (já com a lista de Posts preenchida pela anotação @DBRef)
-        User obj = service.findById(id); // Reutilizamos o findById que já lida com o 404
+        CursorPageDTO<Post> page = service.findFeed(id, before, limit);
         
-        // 2. Retorna a lista de posts diretamente do objeto User.
-        return ResponseEntity.ok().body(obj.getPosts());
+        return ResponseEntity.ok().body(page);
     }
 
 }
@@ -0,0 +1,50 @@
+package com.willianbrendo.workshopmongo.resources.exceptions;
+
+import java.time.Instant;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+
+/**
+ * Equivalente do ResourceExceptionHandler para a stack reativa (WebFlux):
+ * mesmo corpo de erro (StandardError), mas com o ServerHttpRequest do WebFlux.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ObjectNotFoundException.class)
+    public ResponseEntity<StandardError> resourceNotFound(ObjectNotFoundException e, ServerHttpRequest request) {
+        return error(HttpStatus.NOT_FOUND, "Resource Not Found", e, request);
+    }
+    
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<StandardError> invalidRequest(InvalidRequestException e, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "Invalid Request", e, request);
+    }
+    
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<StandardError> preconditionFailed(PreconditionFailedException e, ServerHttpRequest request) {
+        return error(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", e, request);
+    }
+    
+    private ResponseEntity<StandardError> error(HttpStatus status, String error, Exception e, ServerHttpRequest request) {
+        StandardError err = new StandardError(
+            Instant.now(),
+            status.value(),
+            error,
+            e.getMessage(),
+            request.getPath().value()
+        );
+        return ResponseEntity.status(status).body(err);
+    }
+}
@@ -2,16 +2,23 @@ package com.willianbrendo.workshopmongo.resources.exceptions;
 
 import java.time.Instant;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
 import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+import com.willianbrendo.workshopmongo.services.exceptions.ServiceUnavailableException;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+@ConditionalOnWebApplication(type = Type.SERVLET) // No profile 'reactive' quem atende é a versão WebFlux
 @ControllerAdvice
 public class ResourceExceptionHandler {
 
@@ -60,4 +67,68 @@ public class ResourceExceptionHandler {
         
         return ResponseEntity.status(status).body(err);
     }
+    
+    /**
+     * Manipulador para a exceção InvalidRequestException.
+     * Mapeia para o status HTTP 400 Bad Request (parâmetros inválidos, ex: cursor malformado).
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<StandardError> invalidRequest(InvalidRequestException e, HttpServletRequest request) {
+        
+        // Define o código de status HTTP 400
+        HttpStatus status = HttpStatus.BAD_REQUEST; 
+        
+        StandardError err = new StandardError(
+            Instant.now(),                       
+            status.value(),                      // 400
+            "Invalid Request",      
+            e.getMessage(),                      
+            request.getRequestURI()              
+        );
+        
+        return ResponseEntity.status(status).body(err);
+    }
+    
+    /**
+     * Manipulador para a exceção PreconditionFailedException.
+     * Mapeia para o status HTTP 412 Precondition Failed (If-Match com versão desatualizada).
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<StandardError> preconditionFailed(PreconditionFailedException e, HttpServletRequest request) {
+        
+        // Define o código de status HTTP 412
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED; 
+        
+        StandardError err = new StandardError(
+            Instant.now(),                       
+            status.value(),                      // 412
+            "Precondition Failed",      
+            e.getMessage(),                      
+            request.getRequestURI()              
+        );
+        
+        return ResponseEntity.status(status).body(err);
+    }
+    
+    /**
+     * Manipulador para a exceção ServiceUnavailableException.
+     * Mapeia para o status HTTP 503 Service Unavailable, com Retry-After (ex: buffer de comentários cheio).
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<StandardError> serviceUnavailable(ServiceUnavailableException e, HttpServletRequest request) {
+        
+        // Define o código de status HTTP 503
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE; 
+        
+        StandardError err = new StandardError(
+            Instant.now(),                       
+            status.value(),                      // 503
+            "Service Unavailable",      
+            e.getMessage(),                      
+            request.getRequestURI()              
+        );
+        
+        // O cliente pode tentar de novo em seguida: o buffer esvazia a cada flush
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+    }
 }
@@ -0,0 +1,52 @@
+package com.willianbrendo.workshopmongo.resources.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+
+/**
+ * Leitura de datas vindas da URL (ex.: minDate/maxDate da busca de posts).
+ * Aceita um dia (2018-03-21, em UTC) ou um instante ISO-8601 (2018-03-21T10:00:00Z).
+ */
+public final class DateParams {
+
+	private DateParams() {
+	}
+
+	/**
+	 * Início do intervalo: um dia vale a partir da 00:00 UTC.
+	 * @return O instante, ou null se o parâmetro não veio.
+	 */
+	public static Instant start(String value, String name) {
+		return parse(value, name, false);
+	}
+
+	/**
+	 * Fim do intervalo, exclusivo: um dia vale até o fim dele (00:00 UTC do dia seguinte),
+	 * assim maxDate=2018-03-21 inclui os posts do dia 21.
+	 * @return O instante, ou null se o parâmetro não veio.
+	 */
+	public static Instant end(String value, String name) {
+		return parse(value, name, true);
+	}
+
+	private static Instant parse(String value, String name, boolean end) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			// Sem a parte de hora ('T'), é um dia; com ela, um instante (que precisa do fuso, ex.: Z)
+			if (value.indexOf('T') < 0) {
+				LocalDate day = LocalDate.parse(value);
+				return (end ? day.plusDays(1) : day).atStartOfDay(ZoneOffset.UTC).toInstant();
+			}
+			return Instant.parse(value);
+		}
+		catch (DateTimeParseException e) {
+			throw new InvalidRequestException("Invalid " + name + ": " + value);
+		}
+	}
+}
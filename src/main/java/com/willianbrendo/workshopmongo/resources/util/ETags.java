@@ -0,0 +1,57 @@
+package com.willianbrendo.workshopmongo.resources.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+
+/**
+ * Conversão entre a versão dos documentos (@Version) e o cabeçalho ETag.
+ * O ETag é a própria versão entre aspas ("3"); documentos sem versão valem "0".
+ */
+public final class ETags {
+
+	private ETags() {
+	}
+
+	public static String of(Long version) {
+		return "\"" + (version == null ? 0L : version) + "\"";
+	}
+
+	/**
+	 * Lê as versões aceitas do cabeçalho If-Match, que pode trazer uma lista ("1", "2").
+	 * O If-Match usa comparação forte (RFC 9110, 13.1.1): ETags fracos (W/"1") nunca casam.
+	 * @param ifMatch O valor do cabeçalho (pode ser null).
+	 * @return null se o cabeçalho não veio (sem condição); lista vazia se é '*' (basta o
+	 *         documento existir); senão, as versões listadas.
+	 * @throws PreconditionFailedException se nenhum item da lista pode casar com uma versão desta API.
+	 */
+	public static List<Long> parseIfMatch(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank()) {
+			return null;
+		}
+		if (ifMatch.trim().equals("*")) {
+			return List.of();
+		}
+		List<Long> versions = new ArrayList<>();
+		for (String tag : ifMatch.split(",")) {
+			String value = tag.trim();
+			if (value.startsWith("W/")) {
+				continue;
+			}
+			if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+				value = value.substring(1, value.length() - 1);
+			}
+			try {
+				versions.add(Long.parseLong(value));
+			}
+			catch (NumberFormatException e) {
+				// ETag de outra origem: não casa com nenhuma versão
+			}
+		}
+		if (versions.isEmpty()) {
+			throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+		}
+		return versions;
+	}
+}
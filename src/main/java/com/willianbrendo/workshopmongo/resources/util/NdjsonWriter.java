@@ -0,0 +1,51 @@
+package com.willianbrendo.workshopmongo.resources.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Escreve um Stream de objetos como NDJSON (um documento JSON por linha) direto na resposta.
+ * Nenhuma lista é montada em memória: cada documento é serializado assim que sai do cursor
+ * do MongoDB, e a saída é enviada ao cliente (flush) a cada 'flushEvery' documentos.
+ */
+public final class NdjsonWriter {
+
+	private NdjsonWriter() {
+	}
+
+	/**
+	 * @param mapper O ObjectMapper da aplicação (mesma configuração do JSON normal).
+	 * @param stream O Stream a ser consumido. É fechado ao final (libera o cursor do MongoDB).
+	 * @param out A saída da resposta HTTP.
+	 * @param flushEvery De quantos em quantos documentos enviar a saída ao cliente.
+	 */
+	public static void write(ObjectMapper mapper, Stream<?> stream, OutputStream out, int flushEvery) throws IOException {
+		// Sem flush a cada writeValue: quem decide quando enviar é o lote
+		ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		
+		try (stream; JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+			// A saída pertence ao container; o gerador não deve fechá-la
+			gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// O separador entre documentos é a quebra de linha escrita abaixo
+			gen.setRootValueSeparator(null);
+			
+			int count = 0;
+			Iterator<?> it = stream.iterator();
+			while (it.hasNext()) {
+				writer.writeValue(gen, it.next());
+				gen.writeRaw('\n');
+				if (++count % flushEvery == 0) {
+					gen.flush();
+				}
+			}
+			gen.flush();
+		}
+	}
+}
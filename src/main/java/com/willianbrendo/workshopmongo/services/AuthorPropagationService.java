@@ -0,0 +1,233 @@
+package com.willianbrendo.workshopmongo.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.willianbrendo.workshopmongo.config.CacheConfig;
+import com.willianbrendo.workshopmongo.domain.Post;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Propaga a troca de nome de um usuário para as cópias embutidas do nome (AuthorDTO)
+ * no autor dos posts e no autor dos comentários.
+ * Roda em segundo plano, com um pool limitado: o PUT/PATCH do usuário só agenda o trabalho.
+ * Os documentos são atualizados em lotes (updateMulti por lista de _id) e só os que ainda
+ * têm um nome diferente são tocados, então repetir a propagação não reescreve nada.
+ * Se o usuário for renomeado de novo durante a propagação, o lote em andamento termina
+ * e o trabalho recomeça com o nome mais recente. Se a propagação falhar e já houver um nome
+ * mais novo pendente, ela é reagendada com esse nome.
+ */
+@Service
+public class AuthorPropagationService {
+
+	private static final Logger log = LoggerFactory.getLogger(AuthorPropagationService.class);
+
+	private static final String METRIC_PREFIX = "workshop.author.propagation";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Value("${workshop.propagation.concurrency:2}")
+	private int concurrency;
+
+	@Value("${workshop.propagation.queue-capacity:1000}")
+	private int queueCapacity;
+
+	@Value("${workshop.propagation.batch-size:500}")
+	private int batchSize;
+
+	// Quanto o desligamento espera pelas propagações em andamento e na fila
+	@Value("${workshop.propagation.drain-timeout:30s}")
+	private Duration drainTimeout;
+
+	// Nome mais recente a propagar por usuário. A presença da chave indica que já existe
+	// um trabalho agendado ou rodando para esse usuário.
+	private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+	private ThreadPoolTaskExecutor executor;
+	private Counter postsUpdated;
+	private Counter commentsUpdated;
+	private Timer jobTimer;
+
+	@PostConstruct
+	void init() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("author-propagation-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationMillis(drainTimeout.toMillis());
+		executor.initialize();
+
+		postsUpdated = Counter.builder(METRIC_PREFIX + ".documents")
+				.description("Posts com o nome do autor atualizado").tag("target", "posts").register(registry);
+		commentsUpdated = Counter.builder(METRIC_PREFIX + ".documents")
+				.description("Posts com o nome do autor de comentários atualizado").tag("target", "comments").register(registry);
+		jobTimer = Timer.builder(METRIC_PREFIX + ".duration")
+				.description("Duração de cada propagação de nome").register(registry);
+		registry.gauge(METRIC_PREFIX + ".pending", pending, Map::size);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+		// O que sobrou depois do prazo não é propagado: fica registrado para ser refeito
+		// (uma nova alteração do usuário propaga de novo)
+		if (!pending.isEmpty()) {
+			registry.counter(METRIC_PREFIX + ".jobs", "result", "dropped").increment(pending.size());
+			log.warn("{} propagações de nome descartadas no desligamento, usuários: {}", pending.size(), pending.keySet());
+		}
+	}
+
+	/**
+	 * Agenda a propagação do nome do usuário. Nunca bloqueia nem lança exceção: com a fila
+	 * cheia o pedido é descartado e registrado (a próxima alteração do usuário propaga de novo).
+	 * @param userId O ID do usuário.
+	 * @param name O nome atual do usuário.
+	 */
+	public void propagate(String userId, String name) {
+		if (name == null) {
+			return;
+		}
+		// Já há um trabalho para este usuário: ele vai ler o nome novo antes de terminar
+		if (pending.put(userId, name) != null) {
+			return;
+		}
+		schedule(userId, name);
+	}
+
+	private void schedule(String userId, String name) {
+		try {
+			executor.execute(() -> run(userId));
+		}
+		catch (TaskRejectedException e) {
+			pending.remove(userId, name);
+			count("rejected");
+			log.warn("Propagação do nome do usuário {} descartada: fila cheia ou aplicação desligando", userId);
+		}
+	}
+
+	private void run(String userId) {
+		Timer.Sample sample = Timer.start(registry);
+		String name = pending.get(userId);
+		try {
+			while (name != null) {
+				if (updatePosts(userId, name) && updateComments(userId, name) && pending.remove(userId, name)) {
+					count("completed");
+					return;
+				}
+				// Renomeado de novo no meio do caminho: recomeça com o nome mais recente
+				count("superseded");
+				name = pending.get(userId);
+			}
+		}
+		catch (RuntimeException e) {
+			count("failed");
+			log.error("Falha ao propagar o nome do usuário {}", userId, e);
+			// Só remove o nome que falhou: um nome mais novo, que chegou durante o trabalho,
+			// não foi agendado pelo propagate() e precisa ser reagendado aqui
+			if (!pending.remove(userId, name)) {
+				String newer = pending.get(userId);
+				if (newer != null) {
+					count("retried");
+					schedule(userId, newer);
+				}
+			}
+		}
+		finally {
+			sample.stop(jobTimer);
+		}
+	}
+
+	/**
+	 * Atualiza o author.name dos posts do usuário, em lotes.
+	 * @return false se o nome mudou de novo durante a atualização.
+	 */
+	private boolean updatePosts(String userId, String name) {
+		Criteria stale = Criteria.where("author.id").is(userId).and("author.name").ne(name);
+		Update update = new Update().set("author.name", name);
+		return updateInBatches(stale, update, postsUpdated, userId, name);
+	}
+
+	/**
+	 * Atualiza o author.name dos comentários do usuário, em lotes. O arrayFilter limita
+	 * o $set aos comentários do usuário dentro de cada post.
+	 * @return false se o nome mudou de novo durante a atualização.
+	 */
+	private boolean updateComments(String userId, String name) {
+		Criteria stale = Criteria.where("comments").elemMatch(
+				Criteria.where("author.id").is(userId).and("author.name").ne(name));
+		// O arrayFilter não passa pelo mapeamento da entidade: usa o nome e o tipo gravados (_id ObjectId)
+		Update update = new Update().set("comments.$[c].author.name", name)
+				.filterArray(Criteria.where("c.author._id").is(idValue(userId)));
+		return updateInBatches(stale, update, commentsUpdated, userId, name);
+	}
+
+	private boolean updateInBatches(Criteria stale, Update update, Counter counter, String userId, String name) {
+		while (true) {
+			if (!name.equals(pending.get(userId))) {
+				return false;
+			}
+			// Só os _id do lote (via índice), depois um updateMulti restrito a eles
+			Query batchQuery = new Query(stale).limit(batchSize);
+			batchQuery.fields().include("id");
+			List<String> ids = mongoTemplate.find(batchQuery, Post.class).stream().map(Post::getId).toList();
+			if (ids.isEmpty()) {
+				return true;
+			}
+			UpdateResult result = mongoTemplate.updateMulti(
+					new Query(Criteria.where("id").in(ids)).addCriteria(stale), update, Post.class);
+			counter.increment(result.getModifiedCount());
+			evictPosts(ids);
+			if (ids.size() < batchSize) {
+				return true;
+			}
+		}
+	}
+
+	// Os posts em cache ficariam com o nome antigo
+	private void evictPosts(List<String> ids) {
+		Cache cache = cacheManager.getCache(CacheConfig.POSTS);
+		if (cache != null) {
+			ids.forEach(cache::evict);
+		}
+	}
+
+	private void count(String result) {
+		registry.counter(METRIC_PREFIX + ".jobs", "result", result).increment();
+	}
+
+	private static Object idValue(String id) {
+		return ObjectId.isValid(id) ? new ObjectId(id) : id;
+	}
+}
@@ -0,0 +1,392 @@
+package com.willianbrendo.workshopmongo.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.willianbrendo.workshopmongo.config.CacheConfig;
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Gravação adiada (write-behind) dos comentários, opcional (workshop.comments.write-behind.enabled).
+ * Em vez de um $push por comentário, o POST /posts/{id}/comments só coloca o comentário em
+ * um buffer em memória, agrupado por post, e responde 202. Uma thread grava o buffer em lotes:
+ * um único bulkWrite não ordenado com um { $push: { comments: { $each: [...], $slice: -max } } }
+ * por post, quando o buffer chega a 'batch-size' comentários ou a cada 'flush-interval'.
+ *
+ * Troca de durabilidade por vazão, ajustável:
+ *  - comentários no buffer se perdem se o processo morrer; 'flush-interval' limita essa janela;
+ *  - 'write-concern' define o reconhecimento das gravações em lote (vazio = o padrão do cliente);
+ *  - comentários de posts inexistentes são descartados no flush (o 202 não verifica o post).
+ *
+ * Contrapressão: o buffer aceita no máximo 'capacity' comentários. Cheio, a requisição espera
+ * até 'offer-timeout' por espaço e depois recebe 503. No desligamento o buffer para de aceitar
+ * comentários e é gravado por inteiro antes do cliente do MongoDB ser fechado.
+ */
+@Service
+public class CommentWriteBehindService implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(CommentWriteBehindService.class);
+
+	private static final String METRIC_PREFIX = "workshop.comments.write-behind";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Value("${workshop.comments.write-behind.enabled:false}")
+	private boolean enabled;
+
+	@Value("${workshop.comments.write-behind.capacity:10000}")
+	private int capacity;
+
+	@Value("${workshop.comments.write-behind.batch-size:500}")
+	private int batchSize;
+
+	@Value("${workshop.comments.write-behind.flush-interval:200ms}")
+	private Duration flushInterval;
+
+	@Value("${workshop.comments.write-behind.write-concern:}")
+	private String writeConcern;
+
+	@Value("${workshop.comments.write-behind.offer-timeout:0ms}")
+	private Duration offerTimeout;
+
+	@Value("${workshop.comments.write-behind.drain-timeout:30s}")
+	private Duration drainTimeout;
+
+	@Value("${workshop.comments.max-embedded:500}")
+	private int maxEmbeddedComments;
+
+	// Comentários pendentes por post, na ordem de chegada. O flush retira a lista inteira
+	// de um post com remove(); quem chegar depois cria uma lista nova.
+	private final Map<String, List<CommentDTO>> pending = new ConcurrentHashMap<>();
+	private final AtomicInteger buffered = new AtomicInteger();
+	private Semaphore permits;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition wakeup = lock.newCondition();
+	private volatile boolean running;
+	private Thread flusher;
+
+	private WriteConcern concern;
+	private QueryMapper queryMapper;
+	private UpdateMapper updateMapper;
+	private MongoPersistentEntity<?> postEntity;
+
+	private Counter flushed;
+	private Counter rejected;
+	private Counter failed;
+	private Counter orphanedPosts;
+	private Timer flushTimer;
+
+	@PostConstruct
+	void init() {
+		permits = new Semaphore(capacity);
+		if (!writeConcern.isBlank()) {
+			// ACKNOWLEDGED, W1, W2, MAJORITY, JOURNALED ou UNACKNOWLEDGED
+			concern = WriteConcern.valueOf(writeConcern.trim());
+			if (concern == null) {
+				throw new IllegalStateException("Unknown workshop.comments.write-behind.write-concern: " + writeConcern);
+			}
+		}
+		queryMapper = new QueryMapper(mongoTemplate.getConverter());
+		updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+		postEntity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Post.class);
+
+		flushed = counter("flushed", "Comentários gravados pelo flush");
+		rejected = counter("rejected", "Comentários recusados com o buffer cheio (503)");
+		failed = counter("failed", "Comentários perdidos por erro na gravação em lote");
+		orphanedPosts = Counter.builder(METRIC_PREFIX + ".orphaned-posts")
+				.description("Posts inexistentes no flush (os comentários deles são descartados)").register(registry);
+		flushTimer = Timer.builder(METRIC_PREFIX + ".flush").description("Duração de cada gravação em lote")
+				.register(registry);
+		registry.gauge(METRIC_PREFIX + ".buffered", buffered);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Coloca o comentário no buffer. Não verifica se o post existe.
+	 * @throws ServiceUnavailableException se o buffer continuar cheio depois de 'offer-timeout',
+	 *                                     ou se a aplicação estiver desligando.
+	 */
+	public void submit(String postId, CommentDTO comment) {
+		if (!running) {
+			throw new ServiceUnavailableException("Comment buffer is not accepting comments");
+		}
+		if (!acquire()) {
+			rejected.increment();
+			throw new ServiceUnavailableException("Comment buffer is full");
+		}
+		pending.compute(postId, (id, list) -> {
+			List<CommentDTO> comments = list == null ? new ArrayList<>() : list;
+			comments.add(comment);
+			return comments;
+		});
+		// O stop() pode ter começado entre a verificação acima e a inclusão, e o último flush
+		// pode já ter passado: sem desfazer aqui, o comentário ficaria no buffer e se perderia.
+		// Se ele ainda estiver no buffer, sai e a requisição recebe 503; se um flush já o pegou,
+		// ele será gravado. Quem lê running == true aqui incluiu antes do stop() e entra no último flush.
+		if (!running && withdraw(postId, comment)) {
+			permits.release();
+			throw new ServiceUnavailableException("Comment buffer is not accepting comments");
+		}
+		// Gatilho por tamanho: acorda a thread de flush sem esperar o intervalo
+		if (buffered.incrementAndGet() >= batchSize) {
+			signal();
+		}
+	}
+
+	/**
+	 * Retira o comentário do buffer, se nenhum flush o pegou ainda.
+	 * @return true se o comentário foi retirado.
+	 */
+	private boolean withdraw(String postId, CommentDTO comment) {
+		boolean[] removed = new boolean[1];
+		pending.computeIfPresent(postId, (id, list) -> {
+			removed[0] = list.removeIf(c -> c == comment);
+			return list.isEmpty() ? null : list;
+		});
+		return removed[0];
+	}
+
+	private boolean acquire() {
+		try {
+			return offerTimeout.isZero() ? permits.tryAcquire()
+					: permits.tryAcquire(offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void signal() {
+		lock.lock();
+		try {
+			wakeup.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void runFlusher() {
+		while (running) {
+			lock.lock();
+			try {
+				if (running && buffered.get() < batchSize) {
+					wakeup.awaitNanos(flushInterval.toNanos());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			finally {
+				lock.unlock();
+			}
+			try {
+				flush();
+			}
+			catch (RuntimeException e) {
+				// Os comentários do lote já foram contados como perdidos; a thread continua
+				log.error("Erro inesperado no flush de comentários", e);
+			}
+		}
+	}
+
+	/**
+	 * Grava tudo o que está no buffer, em bulkWrites de até 'batch-size' comentários.
+	 */
+	void flush() {
+		List<String> postIds = new ArrayList<>();
+		List<List<CommentDTO>> batches = new ArrayList<>();
+		int comments = 0;
+		for (String postId : pending.keySet()) {
+			List<CommentDTO> list = pending.remove(postId);
+			if (list == null) {
+				continue;
+			}
+			postIds.add(postId);
+			batches.add(list);
+			comments += list.size();
+			if (comments >= batchSize) {
+				write(postIds, batches, comments);
+				postIds = new ArrayList<>();
+				batches = new ArrayList<>();
+				comments = 0;
+			}
+		}
+		if (!postIds.isEmpty()) {
+			write(postIds, batches, comments);
+		}
+	}
+
+	private void write(List<String> postIds, List<List<CommentDTO>> batches, int comments) {
+		List<WriteModel<Document>> models = new ArrayList<>(postIds.size());
+		for (int i = 0; i < postIds.size(); i++) {
+			models.add(new UpdateOneModel<>(
+					queryMapper.getMappedObject(PostService.byId(postIds.get(i)).getQueryObject(), postEntity),
+					updateMapper.getMappedObject(pushUpdate(batches.get(i)).getUpdateObject(), postEntity)));
+		}
+
+		Timer.Sample sample = Timer.start(registry);
+		try {
+			BulkWriteResult result = collection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+			countResult(result, postIds.size(), comments);
+		}
+		catch (MongoBulkWriteException e) {
+			// No modo não ordenado, só os posts com erro ficam sem os comentários
+			int lost = 0;
+			for (BulkWriteError error : e.getWriteErrors()) {
+				lost += batches.get(error.getIndex()).size();
+			}
+			failed.increment(lost);
+			log.error("Erro ao gravar comentários em lote: {} de {} comentários descartados", lost, comments, e);
+			countResult(e.getWriteResult(), postIds.size() - e.getWriteErrors().size(), comments - lost);
+		}
+		catch (MongoException e) {
+			failed.increment(comments);
+			log.error("Erro ao gravar {} comentários em lote; comentários descartados", comments, e);
+		}
+		catch (RuntimeException e) {
+			failed.increment(comments);
+			throw e;
+		}
+		finally {
+			sample.stop(flushTimer);
+			Cache cache = cacheManager.getCache(CacheConfig.POSTS);
+			if (cache != null) {
+				postIds.forEach(cache::evict);
+			}
+			buffered.addAndGet(-comments);
+			permits.release(comments);
+		}
+	}
+
+	/**
+	 * { $push: { comments: { $each: [...], $slice: -max } }, $inc: { version: 1 } }
+	 * O bulkWrite do driver não passa pelo MongoTemplate, que incrementaria o @Version sozinho
+	 * como no addComment síncrono: sem o $inc, o ETag do post não mudaria com os comentários novos.
+	 */
+	Update pushUpdate(List<CommentDTO> comments) {
+		return new Update().push("comments").slice(-maxEmbeddedComments).each(comments.toArray())
+				.inc("version", 1);
+	}
+
+	/**
+	 * O resultado do bulkWrite só traz totais: um post sem erro que não casou não existe mais,
+	 * e os comentários dele foram descartados.
+	 */
+	private void countResult(BulkWriteResult result, int posts, int comments) {
+		flushed.increment(comments);
+		if (result.wasAcknowledged() && result.getMatchedCount() < posts) {
+			int missing = posts - result.getMatchedCount();
+			orphanedPosts.increment(missing);
+			log.warn("{} posts não encontrados no flush de comentários; os comentários deles foram descartados", missing);
+		}
+	}
+
+	private MongoCollection<Document> collection() {
+		MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Post.class));
+		return concern == null ? collection : collection.withWriteConcern(concern);
+	}
+
+	private Counter counter(String outcome, String description) {
+		return Counter.builder(METRIC_PREFIX + ".comments").description(description).tag("outcome", outcome)
+				.register(registry);
+	}
+
+	@Override
+	public void start() {
+		if (!enabled || running) {
+			return;
+		}
+		running = true;
+		flusher = Thread.ofPlatform().name("comment-write-behind").start(this::runFlusher);
+		log.info("Comentários em write-behind: até {} no buffer, flush a cada {} ou {} comentários", capacity,
+				flushInterval, batchSize);
+	}
+
+	/**
+	 * Para de aceitar comentários e grava o que restou no buffer.
+	 */
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		signal();
+		try {
+			flusher.join(drainTimeout.toMillis());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// Comentários aceitos enquanto a thread de flush terminava
+		flush();
+		log.info("Buffer de comentários esvaziado no desligamento");
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Fase menor que a do servidor web: o buffer começa a aceitar comentários antes do servidor
+	 * subir e só para depois que ele terminou as requisições em andamento.
+	 */
+	@Override
+	public int getPhase() {
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+}
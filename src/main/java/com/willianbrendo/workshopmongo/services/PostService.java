@@ -1,23 +1,100 @@
 package com.willianbrendo.workshopmongo.services;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.willianbrendo.workshopmongo.config.CacheConfig;
 import com.willianbrendo.workshopmongo.domain.Post;
 import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
 import com.willianbrendo.workshopmongo.repositories.PostRepository;
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
 import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+import com.willianbrendo.workshopmongo.services.exceptions.ServiceUnavailableException;
+import com.willianbrendo.workshopmongo.services.util.BulkInsert;
+import com.willianbrendo.workshopmongo.services.util.PageCursor;
+import com.willianbrendo.workshopmongo.services.util.Pages;
+import com.willianbrendo.workshopmongo.services.util.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 @Service // 🎯 Anotação que registra esta classe como um componente de serviço do Spring
 public class PostService {
 
+    // Ordenação da paginação keyset: deve seguir o índice composto 'date_id' do Post
+    static final Sort PAGE_SORT = Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id"));
+
 	// Injeção de dependência do Repositório
     @Autowired 
     private PostRepository repository; 
     // O Spring inicializa automaticamente o 'repository' quando o PostService é criado.
+    
+    // Tamanho máximo de página aceito na paginação por cursor (application.properties)
+    @Value("${workshop.pagination.max-limit:100}")
+    private int maxPageLimit;
+    
+    // Tempo máximo de execução da busca combinada no servidor (GET /posts/fullsearch)
+    @Value("${workshop.search.max-time:2s}")
+    private Duration searchMaxTime;
+    
+    // Usado nas leituras em streaming (cursor), que o MongoRepository não oferece
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    // Quantos documentos o cursor do MongoDB traz por lote na exportação
+    @Value("${workshop.export.batch-size:500}")
+    private int exportBatchSize;
+    
+    // Quantidade máxima de itens aceita na inserção em lote
+    @Value("${workshop.batch.max-size:1000}")
+    private int maxBatchSize;
+    
+    // Quantidade máxima de comentários embutidos em um post (os mais antigos saem do array)
+    @Value("${workshop.comments.max-embedded:500}")
+    private int maxEmbeddedComments;
+    
+    @Autowired
+    private MeterRegistry registry;
+    
+    // Gravação adiada e em lote dos comentários (opcional, ver CommentWriteBehindService)
+    @Autowired
+    private CommentWriteBehindService commentWriteBehind;
+    
+    // Leituras idênticas e simultâneas compartilham uma única consulta (ex.: um post viral
+    // pedido por centenas de clientes ao mesmo tempo, antes de entrar no cache)
+    private final SingleFlight<String, Post> findByIdFlight = new SingleFlight<>();
+    private final SingleFlight<String, List<Post>> findByTitleFlight = new SingleFlight<>();
+    
+    @PostConstruct
+    void registerMetrics() {
+        SingleFlight.bindCoalesced(registry, "posts.findById", findByIdFlight);
+        SingleFlight.bindCoalesced(registry, "posts.findByTitle", findByTitleFlight);
+    }
 
     /**
      * Retorna todos os usuários cadastrados no banco de dados MongoDB.
@@ -28,18 +105,64 @@ public class PostService {
         return repository.findAll();
     }
     
+    /**
+     * Percorre todos os posts com um cursor do MongoDB, sem montar a lista em memória.
+     * Os documentos chegam em lotes de 'workshop.export.batch-size'.
+     * 🎯 O Stream mantém o cursor aberto: quem chama DEVE fechá-lo (try-with-resources).
+     * @return Um Stream de Post ligado ao cursor.
+     */
+    public Stream<Post> streamAll() {
+        Query query = new Query().cursorBatchSize(exportBatchSize);
+        return mongoTemplate.stream(query, Post.class);
+    }
+    
+    /**
+     * Busca uma página de posts usando paginação keyset (cursor), do mais novo para o mais antigo.
+     * Diferente de skip/offset, o custo de cada página não cresce com a posição na coleção:
+     * a consulta é um intervalo sobre o índice (date desc, _id desc).
+     * @param after O cursor da página anterior ('nextCursor'), ou nulo para a primeira página.
+     * @param limit O tamanho da página (1 até workshop.pagination.max-limit).
+     * @return A página com os posts e o cursor da próxima página.
+     */
+    public CursorPageDTO<Post> findPage(String after, int limit) {
+        int size = checkLimit(limit);
+        
+        // Buscamos um item a mais para saber se existe próxima página, sem precisar de 'count'.
+        PageRequest page = PageRequest.of(0, size + 1, PAGE_SORT);
+        List<Post> list;
+        if (after == null || after.isEmpty()) {
+            list = repository.findAllBy(page);
+        }
+        else {
+            PageCursor cursor = PageCursor.decode(after, true);
+            list = repository.findPageAfter(cursor.getDate(), cursor.getId(), page);
+        }
+        
+        return Pages.toPage(list, size, x -> new PageCursor(x.getDate(), x.getId()));
+    }
+    
+    /**
+     * Valida o tamanho de página pedido pelo cliente (máximo em workshop.pagination.max-limit).
+     */
+    private int checkLimit(int limit) {
+        return Pages.checkLimit(limit, maxPageLimit);
+    }
+    
     /**
      * Busca um usuário pelo seu ID, lançando exceção se não for encontrado.
      * @param id O ID (String) do usuário a ser buscado.
      * @return O objeto User, se encontrado.
      */
+    @Cacheable(cacheNames = CacheConfig.POSTS, key = "#id") // 🎯 Consulta o cache antes do banco (ver CacheConfig)
     public Post findById(String id) {
-        // O findById retorna um Optional<User>
-        Optional<Post> obj = repository.findById(id);
-        
-        // 🎯 Se o Optional estiver vazio (ID não existe), lança ResourceNotFoundException (404)
-        // Se contiver um User, retorna o objeto User.
-        return obj.orElseThrow(() -> new ObjectNotFoundException(id));
+        return findByIdFlight.execute(id, () -> {
+            // O findById retorna um Optional<User>
+            Optional<Post> obj = repository.findById(id);
+            
+            // 🎯 Se o Optional estiver vazio (ID não existe), lança ResourceNotFoundException (404)
+            // Se contiver um User, retorna o objeto User.
+            return obj.orElseThrow(() -> new ObjectNotFoundException(id));
+        });
     }
     
     /**
@@ -57,18 +180,38 @@ public class PostService {
     }
     
     /**
-     * Deleta um usuário pelo ID, verificando primeiro se ele existe.
-     * @param id O ID (String) do usuário a ser deletado.
+     * Insere vários posts em uma única operação bulk (modo UNORDERED).
+     * Substitui N chamadas de save() (N idas ao banco) por um comando só; a falha de um
+     * item não impede a inserção dos demais.
+     * @param list Os itens a inserir (1 até workshop.batch.max-size).
+     * @return O ID gerado ou o erro de cada item, na ordem recebida.
+     */
+    public BatchResultDTO insertBatch(List<Post> list) {
+        if (list == null || list.isEmpty()) {
+            throw new InvalidRequestException("Batch must not be empty");
+        }
+        if (list.size() > maxBatchSize) {
+            throw new InvalidRequestException("Batch size " + list.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+        return BulkInsert.insertUnordered(mongoTemplate, Post.class, list, (obj, id) -> obj.setId(id));
+    }
+    
+    /**
+     * Deleta um post pelo ID em uma única ida ao banco.
+     * O número de documentos removidos informado pelo MongoDB indica se o post existia:
+     * se for zero, lança ObjectNotFoundException (404).
+     * @param id O ID (String) do post a ser deletado.
+     * @param expectedVersions As versões informadas no If-Match, ou null para excluir sem conferir.
      */
-    public void delete(String id) {
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id") // Remove a entrada do cache após a exclusão
+    public void delete(String id, List<Long> expectedVersions) {
         
-        // 1. Garante o tratamento de erro 404: 
-        // Usamos o findById para verificar a existência. Se não encontrar,
-        // o findById lança a ResourceNotFoundException.
-        findById(id); 
+        DeleteResult result = mongoTemplate.remove(byId(id, expectedVersions), Post.class);
         
-        // 2. Se o findById não lançou exceção, o recurso existe e pode ser deletado.
-        repository.deleteById(id);
+        // 🎯 Nenhum documento removido: o ID não existe (404) ou a versão não confere (412)
+        if (result.getDeletedCount() == 0) {
+            throw notModified(id, expectedVersions);
+        }
         
         // NOTA: Em bancos de dados relacionais, aqui seria o ponto para tratar 
         // a DataIntegrityViolationException (erro 400), mas no MongoDB NoSQL puro,
@@ -78,33 +221,184 @@ public class PostService {
     
     
     /**
-     * Atualiza um usuário existente no banco de dados.
-     * @param id O ID (String) do usuário a ser atualizado.
-     * @param obj O objeto User com os novos dados.
-     * @return O objeto User atualizado.
+     * Atualiza um post existente no banco de dados (PUT: todos os campos editáveis).
+     * É uma operação atômica (findAndModify com $set) em uma única ida ao banco:
+     * só os campos editáveis são gravados, sem reescrever o documento inteiro.
+     * @param id O ID (String) do post a ser atualizado.
+     * @param obj O objeto Post com os novos dados.
+     * @param expectedVersions As versões informadas no If-Match, ou null para atualizar sem conferir.
+     * @return O objeto Post atualizado.
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id") // Remove a entrada do cache após a atualização
+    public Post update(String id, Post obj, List<Long> expectedVersions) {
+        return modify(id, expectedVersions, updateData(obj));
+    }
+    
+    /**
+     * Atualiza parcialmente um post (PATCH): só os campos não nulos de 'obj' são alterados.
+     * Também é uma única operação atômica (findAndModify com $set).
+     * @param id O ID (String) do post a ser atualizado.
+     * @param obj O objeto Post com os campos a alterar.
+     * @param expectedVersions As versões informadas no If-Match, ou null para atualizar sem conferir.
+     * @return O objeto Post atualizado.
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id") // Remove a entrada do cache após a atualização
+    public Post patch(String id, Post obj, List<Long> expectedVersions) {
+        Update update = new Update();
+        if (obj.getTitle() != null) {
+            update.set("title", obj.getTitle());
+        }
+        if (obj.getDate() != null) {
+            update.set("date", obj.getDate());
+        }
+        if (obj.getBody() != null) {
+            update.set("body", obj.getBody());
+        }
+        if (obj.getAuthor() != null) {
+            update.set("author", obj.getAuthor());
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            throw new InvalidRequestException("No fields to update");
+        }
+        return modify(id, expectedVersions, update);
+    }
+    
+    /**
+     * Aplica o $set no documento do ID informado e retorna a versão já atualizada.
+     * O Spring Data soma 1 ao campo @Version na mesma operação. Se nenhum documento casar,
+     * lança ObjectNotFoundException (404) ou, se a versão esperada não confere, PreconditionFailedException (412).
+     */
+    private Post modify(String id, List<Long> expectedVersions, Update update) {
+        Post entity = mongoTemplate.findAndModify(byId(id, expectedVersions), update, FindAndModifyOptions.options().returnNew(true), Post.class);
+        if (entity == null) {
+            throw notModified(id, expectedVersions);
+        }
+        return entity;
+    }
+
+    /**
+     * Método auxiliar que monta o $set com os campos editáveis do objeto
+     * recebido (obj). Os demais campos do documento não são tocados.
+     */
+    static Update updateData(Post obj) {
+        return new Update()
+            .set("title", obj.getTitle())
+            .set("date", obj.getDate())
+            .set("body", obj.getBody())
+            .set("author", obj.getAuthor());
+    }
+    
+    /**
+     * Consulta por _id (o mapeamento converte o ID String para ObjectId).
+     */
+    static Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+    
+    /**
+     * Consulta por _id que, com as versões do If-Match, também exige uma delas.
+     * Documentos gravados antes do @Version não têm o campo e valem como versão 0.
+     * Lista vazia (If-Match: *) só exige que o documento exista.
      */
-    public Post update(String id, Post obj) {
+    static Query byId(String id, List<Long> expectedVersions) {
+        Query query = byId(id);
+        if (expectedVersions != null && !expectedVersions.isEmpty()) {
+            List<Long> versions = new ArrayList<>(expectedVersions);
+            if (versions.contains(0L)) {
+                versions.add(null);
+            }
+            query.addCriteria(Criteria.where("version").in(versions));
+        }
+        return query;
+    }
+    
+    /**
+     * Exceção para uma escrita condicional que não casou com nenhum documento:
+     * 412 se o documento existe (a versão mudou) ou se o If-Match era '*', 404 se não existe.
+     */
+    private RuntimeException notModified(String id, List<Long> expectedVersions) {
+        if (expectedVersions != null && (expectedVersions.isEmpty() || mongoTemplate.exists(byId(id), Post.class))) {
+            return versionMismatch(id, expectedVersions);
+        }
+        return new ObjectNotFoundException(id);
+    }
+    
+    static PreconditionFailedException versionMismatch(String id, List<Long> expectedVersions) {
+        return new PreconditionFailedException(expectedVersions.isEmpty()
+                ? "No current version for id " + id
+                : "Version mismatch for id " + id + ": expected one of " + expectedVersions);
+    }
+    
+    /**
+     * Adiciona um comentário a um post com uma única operação atômica ($push).
+     * Não há leitura do post nem regravação do documento: comentários simultâneos
+     * no mesmo post não se sobrescrevem. O array é limitado ($slice) aos últimos
+     * 'workshop.comments.max-embedded' comentários; os mais antigos são descartados.
+     * @param id O ID do post.
+     * Com o write-behind ligado, o comentário só entra no buffer e é gravado depois, em lote
+     * (ver CommentWriteBehindService); nesse caso a existência do post não é verificada.
+     * @param comment O comentário. Se vier sem data, usa o instante atual.
+     * @return O comentário gravado (ou aceito no buffer).
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id") // O post em cache ficaria sem o novo comentário
+    public CommentDTO addComment(String id, CommentDTO comment) {
+        checkComment(comment);
+        if (comment.getDate() == null) {
+            comment.setDate(Instant.now());
+        }
+        if (commentWriteBehind.isEnabled()) {
+            commentWriteBehind.submit(id, comment);
+            return comment;
+        }
         
-        // 1. Busca a Entidade existente. Se não encontrar, lança 404.
-        // Usamos o findById que já implementamos para garantir o tratamento 404.
-        Post entity = findById(id); 
+        // { $push: { comments: { $each: [comment], $slice: -max } } }
+        Update update = new Update().push("comments").slice(-maxEmbeddedComments).each(comment);
+        UpdateResult result = mongoTemplate.updateFirst(byId(id), update, Post.class);
         
-        // 2. Copia os dados do objeto 'obj' (que veio do Controller) para a 'entity' (que veio do banco)
-        updateData(entity, obj);
+        // 🎯 Nenhum documento casou com o ID: o post não existe (404)
+        if (result.getMatchedCount() == 0) {
+            throw new ObjectNotFoundException(id);
+        }
+        return comment;
+    }
+    
+    /**
+     * Indica se os comentários são gravados depois, em lote (o POST responde 202 em vez de 201).
+     */
+    public boolean isCommentWriteBehind() {
+        return commentWriteBehind.isEnabled();
+    }
+    
+    /**
+     * Busca uma página dos comentários de um post, sem trazer o restante do documento.
+     * A projeção $slice recorta o array no próprio MongoDB.
+     * @param id O ID do post.
+     * @param offset Posição inicial no array de comentários (do mais antigo para o mais novo).
+     * @param limit Quantidade de comentários (1 até workshop.pagination.max-limit).
+     * @return Os comentários da página.
+     */
+    public List<CommentDTO> findComments(String id, int offset, int limit) {
+        if (offset < 0) {
+            throw new InvalidRequestException("Invalid offset: " + offset);
+        }
+        int size = checkLimit(limit);
         
-        // 3. O método save() do MongoRepository realiza o UPDATE quando o ID não é nulo.
-        return repository.save(entity);
+        Query query = byId(id);
+        query.fields().include("id").slice("comments", offset, size);
+        Post post = mongoTemplate.findOne(query, Post.class);
+        if (post == null) {
+            throw new ObjectNotFoundException(id);
+        }
+        return post.getComments();
     }
-
+    
     /**
-     * Método auxiliar privado para copiar os dados relevantes do objeto de origem (obj) 
-     * para o objeto destino (entity), que está sendo monitorado.
+     * Valida o comentário recebido do cliente.
      */
-    private void updateData(Post entity, Post obj) {
-        entity.setTitle(obj.getTitle());
-        entity.setDate(obj.getDate());
-        entity.setBody(obj.getBody());
-        entity.setAuthor(obj.getAuthor());
+    private void checkComment(CommentDTO comment) {
+        if (comment == null || comment.getText() == null || comment.getText().isBlank()) {
+            throw new InvalidRequestException("Comment text must not be empty");
+        }
     }
     
     /**
@@ -113,7 +407,93 @@ public class PostService {
      * @return Uma lista de posts correspondentes.
      */
     public List<Post> findByTitle(String text) {
-        // A string de busca já é passada diretamente para o Query Method do Repositório.
-        return repository.findByTitleContainingIgnoreCase(text);
+        return findByTitleFlight.execute(text, () -> {
+            // Texto vazio casa com todos os títulos: evitamos a regex e buscamos todos direto.
+            if (text.isEmpty()) {
+                return repository.findAll();
+            }
+            
+            // A string de busca já é passada diretamente para o Query Method do Repositório.
+            // A regex resultante usa o índice do campo 'title' (varredura das chaves, não dos documentos).
+            return repository.findByTitleContainingIgnoreCase(text);
+        });
+    }
+    
+    /**
+     * Busca de texto completo em título e corpo, ordenada por relevância.
+     * Usa o índice de texto do Post: casa palavras inteiras (com radical, em português),
+     * diferente do findByTitle, que casa qualquer trecho do título.
+     * @param text Os termos da busca.
+     * @param limit O número máximo de resultados (1 até workshop.pagination.max-limit).
+     * @return Os posts encontrados, do mais relevante para o menos relevante.
+     */
+    public List<Post> search(String text, int limit) {
+        if (text == null || text.isBlank()) {
+            throw new InvalidRequestException("Search text must not be empty");
+        }
+        int size = checkLimit(limit);
+        
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().matching(text);
+        return repository.findAllBy(criteria, PageRequest.of(0, size, Sort.by("score")));
+    }
+    
+    /**
+     * Busca combinada: posts entre duas datas com os termos no título ou no corpo, do mais novo
+     * para o mais antigo, paginada por cursor como o findPage.
+     * Com texto, a busca parte do índice de texto (só os posts com os termos são lidos) e o
+     * intervalo de datas e o cursor filtram esses posts; a ordenação por data fica em memória,
+     * mas só guarda os limit + 1 primeiros. Sem texto, o intervalo e o cursor viram limites de
+     * uma varredura no índice date_id, que já entrega a ordem pedida.
+     * A consulta tem um tempo máximo no servidor (workshop.search.max-time): termos muito
+     * comuns em um intervalo grande respondem 503 em vez de prender o banco.
+     * @param text Termos procurados no título ou no corpo, como no search (vazio: qualquer post).
+     * @param minDate Data mínima, inclusiva (opcional).
+     * @param maxDate Data máxima, exclusiva (opcional).
+     * @param after O 'nextCursor' da página anterior (opcional).
+     * @param limit O tamanho da página (1 até workshop.pagination.max-limit).
+     * @return A página com os posts e o cursor da próxima página.
+     */
+    public CursorPageDTO<Post> fullSearch(String text, Instant minDate, Instant maxDate, String after, int limit) {
+        int size = checkLimit(limit);
+        if (minDate != null && maxDate != null && !minDate.isBefore(maxDate)) {
+            throw new InvalidRequestException("minDate must be before maxDate");
+        }
+        
+        List<Criteria> filters = new ArrayList<>();
+        if (minDate != null || maxDate != null) {
+            Criteria date = Criteria.where("date");
+            if (minDate != null) {
+                date.gte(minDate);
+            }
+            if (maxDate != null) {
+                date.lt(maxDate);
+            }
+            filters.add(date);
+        }
+        if (after != null && !after.isEmpty()) {
+            PageCursor cursor = PageCursor.decode(after, true);
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("date").lt(cursor.getDate()),
+                    Criteria.where("date").is(cursor.getDate()).and("id").lt(cursor.getId())));
+        }
+        
+        Query query = filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters));
+        if (text != null && !text.isBlank()) {
+            // Uma regex sem âncora em 'body' leria todos os posts do intervalo; o $text usa o índice de texto
+            query.addCriteria(TextCriteria.forDefaultLanguage().matching(text));
+        }
+        query.with(PAGE_SORT).limit(size + 1).maxTime(searchMaxTime);
+        
+        List<Post> list;
+        try {
+            list = mongoTemplate.find(query, Post.class);
+        }
+        catch (RuntimeException e) {
+            if (!(e instanceof MongoExecutionTimeoutException) && !(e.getCause() instanceof MongoExecutionTimeoutException)) {
+                throw e;
+            }
+            throw new ServiceUnavailableException("Search took too long: narrow the date range or use more specific terms");
+        }
+        return Pages.toPage(list, size, x -> new PageCursor(x.getDate(), x.getId()));
     }
 }
@@ -0,0 +1,110 @@
+package com.willianbrendo.workshopmongo.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.repositories.ReactivePostRepository;
+import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.util.PageCursor;
+import com.willianbrendo.workshopmongo.services.util.Pages;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão reativa do PostService, usada pela stack WebFlux (profile 'reactive').
+ * Segue as mesmas regras do PostService (mesmas consultas e o mesmo $set na atualização),
+ * mas devolve Flux/Mono em vez de bloquear a thread.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactivePostService {
+
+	@Autowired
+	private ReactivePostRepository repository;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Value("${workshop.pagination.max-limit:100}")
+	private int maxPageLimit;
+
+	/**
+	 * Todos os posts em streaming: os documentos são emitidos conforme a demanda
+	 * do assinante (backpressure), sem montar a lista em memória.
+	 */
+	public Flux<Post> findAll() {
+		return repository.findAll();
+	}
+
+	/**
+	 * Página da paginação keyset (mesmas regras do PostService.findPage).
+	 */
+	public Mono<CursorPageDTO<Post>> findPage(String after, int limit) {
+		return Mono.fromCallable(() -> Pages.checkLimit(limit, maxPageLimit)).flatMap(size -> {
+			PageRequest page = PageRequest.of(0, size + 1, PostService.PAGE_SORT);
+			Flux<Post> posts;
+			if (after == null || after.isEmpty()) {
+				posts = repository.findAllBy(page);
+			}
+			else {
+				PageCursor cursor = PageCursor.decode(after, true);
+				posts = repository.findPageAfter(cursor.getDate(), cursor.getId(), page);
+			}
+			return posts.collectList().map(list -> Pages.toPage(list, size, x -> new PageCursor(x.getDate(), x.getId())));
+		});
+	}
+
+	/**
+	 * Busca um post pelo ID; se não existir, emite ObjectNotFoundException (404).
+	 */
+	public Mono<Post> findById(String id) {
+		return repository.findById(id).switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(id)));
+	}
+
+	public Mono<Post> insert(Post obj) {
+		obj.setId(null);
+		return repository.save(obj);
+	}
+
+	/**
+	 * Exclusão em uma única ida ao banco; zero documentos removidos significa 404
+	 * (ou 412, se veio uma versão esperada e o documento existe com outra versão).
+	 */
+	public Mono<Void> delete(String id, List<Long> expectedVersions) {
+		return mongoTemplate.remove(PostService.byId(id, expectedVersions), Post.class)
+				.flatMap(result -> result.getDeletedCount() == 0 ? notModified(id, expectedVersions) : Mono.empty());
+	}
+
+	/**
+	 * Atualização atômica (findAndModify com $set), igual ao PostService.update.
+	 */
+	public Mono<Post> update(String id, Post obj, List<Long> expectedVersions) {
+		return mongoTemplate.findAndModify(PostService.byId(id, expectedVersions), PostService.updateData(obj),
+				FindAndModifyOptions.options().returnNew(true), Post.class)
+				.switchIfEmpty(Mono.defer(() -> notModified(id, expectedVersions)));
+	}
+
+	// Mesma regra do PostService: 412 se o documento existe (a versão mudou) ou o If-Match era '*', 404 se não existe
+	private <T> Mono<T> notModified(String id, List<Long> expectedVersions) {
+		Mono<Boolean> exists = expectedVersions == null ? Mono.just(false)
+				: expectedVersions.isEmpty() ? Mono.just(true) : mongoTemplate.exists(PostService.byId(id), Post.class);
+		return exists.flatMap(found -> Mono.error(found
+				? PostService.versionMismatch(id, expectedVersions)
+				: new ObjectNotFoundException(id)));
+	}
+
+	public Flux<Post> findByTitle(String text) {
+		return text.isEmpty() ? repository.findAll() : repository.findByTitleContainingIgnoreCase(text);
+	}
+}
@@ -0,0 +1,150 @@
+package com.willianbrendo.workshopmongo.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.repositories.ReactivePostRepository;
+import com.willianbrendo.workshopmongo.repositories.ReactiveUserRepository;
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.util.PageCursor;
+import com.willianbrendo.workshopmongo.services.util.Pages;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão reativa do UserService, usada pela stack WebFlux (profile 'reactive').
+ * As leituras usam a mesma projeção do UserDTO; a atualização usa o mesmo $set do UserService.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveUserService {
+
+	@Autowired
+	private ReactiveUserRepository repository;
+
+	@Autowired
+	private ReactivePostRepository postRepository;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Autowired
+	private AuthorPropagationService authorPropagation;
+
+	@Value("${workshop.pagination.max-limit:100}")
+	private int maxPageLimit;
+
+	/**
+	 * Todos os usuários (só os campos do UserDTO) em streaming, com backpressure.
+	 */
+	public Flux<User> findAllSummaries() {
+		return repository.findAllSummaries();
+	}
+
+	/**
+	 * Página da paginação keyset (mesmas regras do UserService.findPage).
+	 */
+	public Mono<CursorPageDTO<User>> findPage(String after, int limit) {
+		return Mono.fromCallable(() -> Pages.checkLimit(limit, maxPageLimit)).flatMap(size -> {
+			PageRequest page = PageRequest.of(0, size + 1, UserService.PAGE_SORT);
+			Flux<User> users;
+			if (after == null || after.isEmpty()) {
+				users = repository.findAllBy(page);
+			}
+			else {
+				users = repository.findByIdGreaterThan(PageCursor.decode(after, false).getId(), page);
+			}
+			return users.collectList().map(list -> Pages.toPage(list, size, x -> new PageCursor(null, x.getId())));
+		});
+	}
+
+	public Mono<User> findSummaryById(String id) {
+		return repository.findSummaryById(id).switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(id)));
+	}
+
+	public Mono<User> insert(User obj) {
+		obj.setId(null);
+		return repository.save(obj);
+	}
+
+	/**
+	 * Exclusão em uma única ida ao banco; zero documentos removidos significa 404
+	 * (ou 412, se veio uma versão esperada e o documento existe com outra versão).
+	 */
+	public Mono<Void> delete(String id, List<Long> expectedVersions) {
+		return mongoTemplate.remove(UserService.byId(id, expectedVersions), User.class)
+				.flatMap(result -> result.getDeletedCount() == 0 ? notModified(id, expectedVersions) : Mono.empty());
+	}
+
+	/**
+	 * Atualização atômica (findAndModify com $set), igual ao UserService.update.
+	 */
+	public Mono<User> update(String id, User obj, List<Long> expectedVersions) {
+		return mongoTemplate.findAndModify(UserService.byId(id, expectedVersions), UserService.updateData(obj),
+				FindAndModifyOptions.options().returnNew(true), User.class)
+				.switchIfEmpty(Mono.defer(() -> notModified(id, expectedVersions)))
+				.doOnNext(saved -> authorPropagation.propagate(id, saved.getName()));
+	}
+
+	// Mesma regra do UserService: 412 se o documento existe (a versão mudou) ou o If-Match era '*', 404 se não existe
+	private <T> Mono<T> notModified(String id, List<Long> expectedVersions) {
+		Mono<Boolean> exists = expectedVersions == null ? Mono.just(false)
+				: expectedVersions.isEmpty() ? Mono.just(true) : mongoTemplate.exists(UserService.byId(id), User.class);
+		return exists.flatMap(found -> Mono.error(found
+				? UserService.versionMismatch(id, expectedVersions)
+				: new ObjectNotFoundException(id)));
+	}
+
+	/**
+	 * Posts de um usuário, paginados por offset/limit (mesmas regras do UserService.findPosts):
+	 * busca pelo autor (author.id) na coleção de posts, do mais antigo para o mais novo.
+	 */
+	public Flux<Post> findPosts(String id, int offset, int limit) {
+		if (offset < 0) {
+			return Flux.error(new InvalidRequestException("Invalid offset: " + offset));
+		}
+		return Mono.fromCallable(() -> Pages.checkLimit(limit, maxPageLimit))
+				.flatMapMany(size -> mongoTemplate.exists(UserService.byId(id), User.class)
+						.flatMapMany(exists -> exists
+								? mongoTemplate.find(new Query(Criteria.where("author.id").is(id))
+										.with(UserService.AUTHOR_POSTS_SORT).skip(offset).limit(size), Post.class)
+								: Flux.error(new ObjectNotFoundException(id))));
+	}
+
+	/**
+	 * Linha do tempo de um usuário com paginação keyset (mesmas regras do UserService.findFeed).
+	 */
+	public Mono<CursorPageDTO<Post>> findFeed(String id, String before, int limit) {
+		return Mono.fromCallable(() -> Pages.checkLimit(limit, maxPageLimit)).flatMap(size -> repository.existsById(id)
+				.flatMap(exists -> {
+					if (!exists) {
+						return Mono.error(new ObjectNotFoundException(id));
+					}
+					PageRequest page = PageRequest.of(0, size + 1, PostService.PAGE_SORT);
+					Flux<Post> posts;
+					if (before == null || before.isEmpty()) {
+						posts = postRepository.findByAuthorId(id, page);
+					}
+					else {
+						PageCursor cursor = PageCursor.decode(before, true);
+						posts = postRepository.findByAuthorIdBefore(id, cursor.getDate(), cursor.getId(), page);
+					}
+					return posts.collectList().map(list -> Pages.toPage(list, size, x -> new PageCursor(x.getDate(), x.getId())));
+				}));
+	}
+}
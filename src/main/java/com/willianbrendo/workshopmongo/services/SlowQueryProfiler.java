@@ -0,0 +1,268 @@
+package com.willianbrendo.workshopmongo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.MongoClient;
+import com.willianbrendo.workshopmongo.dto.SlowQueryDTO;
+import com.willianbrendo.workshopmongo.services.util.RingBuffer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Profiler de consultas lentas. Recebe do SlowQueryListener os comandos de leitura que
+ * passaram do limite configurado, roda o explain (executionStats) deles em uma thread
+ * separada e guarda o resultado resumido nos últimos N registros de um buffer circular.
+ * O explain nunca roda na thread da requisição: se a fila de explain estiver cheia,
+ * o comando é registrado sem o plano. Os valores literais do comando (filtros, termos de busca)
+ * são trocados por "?" antes de ir para o buffer; só a forma da consulta fica exposta.
+ */
+@Service
+public class SlowQueryProfiler {
+
+	private static final Logger log = LoggerFactory.getLogger(SlowQueryProfiler.class);
+
+	// Só comandos de leitura: o explain deles não altera dados
+	private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+	// Campos que o driver acrescenta ao comando e que o explain não aceita (ou não fazem sentido repetir)
+	private static final Set<String> DRIVER_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference",
+			"readConcern", "txnNumber", "autocommit", "startTransaction", "apiVersion", "apiStrict",
+			"apiDeprecationErrors");
+
+	// Opções do comando que descrevem a forma da consulta e são guardadas sem redação
+	private static final Set<String> SHAPE_FIELDS = Set.of("sort", "projection", "limit", "skip", "batchSize",
+			"hint", "key");
+
+	// Estágios do pipeline cujo conteúdo é só forma (campos, direções, tamanhos), não valores do usuário
+	private static final Set<String> SHAPE_STAGES = Set.of("$sort", "$project", "$limit", "$skip", "$count",
+			"$unwind");
+
+	private static final BsonString REDACTED = new BsonString("?");
+
+	@Autowired
+	private ObjectProvider<MongoClient> mongoClient; // Lazy: o próprio MongoClient é criado com o listener do profiler
+
+	@Value("${workshop.profiler.enabled:true}")
+	private boolean enabled;
+
+	@Value("${workshop.profiler.threshold:100ms}")
+	private Duration threshold;
+
+	@Value("${workshop.profiler.capacity:100}")
+	private int capacity;
+
+	@Value("${workshop.profiler.explain:true}")
+	private boolean explain;
+
+	@Value("${workshop.profiler.explain-queue:50}")
+	private int explainQueue;
+
+	private RingBuffer<SlowQueryDTO> buffer;
+	private ThreadPoolExecutor explainExecutor;
+
+	@PostConstruct
+	void init() {
+		buffer = new RingBuffer<>(capacity);
+		explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(explainQueue, 1)),
+				Thread.ofPlatform().name("slow-query-explain").daemon().factory());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		explainExecutor.shutdownNow();
+	}
+
+	/**
+	 * @return true se o comando deve ser acompanhado pelo listener.
+	 */
+	public boolean isCandidate(String commandName) {
+		return enabled && EXPLAINABLE_COMMANDS.contains(commandName);
+	}
+
+	public long getThresholdNanos() {
+		return threshold.toNanos();
+	}
+
+	/**
+	 * Registra um comando lento. Chamado na thread do driver, por isso só monta
+	 * o registro e delega o explain para o executor.
+	 */
+	public void record(BsonDocument command, String commandName, long elapsedNanos, boolean failed) {
+		BsonDocument query = withoutDriverFields(command);
+		BsonValue target = command.get(commandName);
+		SlowQueryDTO entry = new SlowQueryDTO(
+				Instant.now(),
+				command.getString("$db", new BsonString("")).getValue(),
+				target != null && target.isString() ? target.asString().getValue() : null,
+				commandName,
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				redact(query, commandName).toJson());
+
+		if (failed) {
+			entry.setExplainError("Comando falhou");
+			buffer.add(entry);
+			return;
+		}
+		if (!explain || entry.getDatabase().isEmpty() || isWriteStage(query)) {
+			buffer.add(entry);
+			return;
+		}
+		try {
+			explainExecutor.execute(() -> {
+				explain(entry, query);
+				buffer.add(entry);
+			});
+		}
+		catch (RejectedExecutionException e) {
+			entry.setExplainError("Fila de explain cheia");
+			buffer.add(entry);
+		}
+	}
+
+	/**
+	 * @return Os comandos lentos guardados, do mais recente para o mais antigo.
+	 */
+	public List<SlowQueryDTO> findAll() {
+		return buffer.snapshot();
+	}
+
+	private void explain(SlowQueryDTO entry, BsonDocument query) {
+		try {
+			BsonDocument result = mongoClient.getObject()
+					.getDatabase(entry.getDatabase())
+					.runCommand(new BsonDocument("explain", query)
+							.append("verbosity", new BsonString("executionStats")), BsonDocument.class);
+			summarize(entry, result);
+		}
+		catch (RuntimeException e) {
+			log.debug("Explain falhou para {}", entry.getCommand(), e);
+			entry.setExplainError(e.getMessage());
+		}
+	}
+
+	/**
+	 * Extrai do explain os estágios do plano vencedor e os contadores de execução.
+	 * No aggregate esses dados ficam dentro do primeiro estágio ($cursor).
+	 */
+	static void summarize(SlowQueryDTO entry, BsonDocument result) {
+		BsonDocument source = result;
+		if (!result.containsKey("queryPlanner") && result.isArray("stages")) {
+			BsonDocument first = result.getArray("stages").get(0).asDocument();
+			source = first.getDocument("$cursor", new BsonDocument());
+		}
+
+		BsonDocument planner = source.getDocument("queryPlanner", new BsonDocument());
+		BsonDocument plan = planner.getDocument("winningPlan", new BsonDocument());
+		if (plan.isDocument("queryPlan")) {
+			plan = plan.getDocument("queryPlan"); // Formato do Slot-Based Engine (MongoDB 7+)
+		}
+		List<String> stages = new ArrayList<>();
+		collectStages(plan, stages);
+		entry.setPlanStages(stages);
+		entry.setCollectionScan(stages.contains("COLLSCAN"));
+
+		BsonDocument stats = source.getDocument("executionStats", new BsonDocument());
+		entry.setDocsExamined(number(stats, "totalDocsExamined"));
+		entry.setKeysExamined(number(stats, "totalKeysExamined"));
+		entry.setDocsReturned(number(stats, "nReturned"));
+	}
+
+	private static void collectStages(BsonDocument stage, List<String> stages) {
+		if (stage.isString("stage")) {
+			stages.add(stage.getString("stage").getValue());
+		}
+		if (stage.isDocument("inputStage")) {
+			collectStages(stage.getDocument("inputStage"), stages);
+		}
+		if (stage.isArray("inputStages")) {
+			for (BsonValue child : stage.getArray("inputStages")) {
+				collectStages(child.asDocument(), stages);
+			}
+		}
+	}
+
+	private static Long number(BsonDocument document, String key) {
+		BsonValue value = document.get(key);
+		return value != null && value.isNumber() ? value.asNumber().longValue() : null;
+	}
+
+	private static BsonDocument withoutDriverFields(BsonDocument command) {
+		BsonDocument query = new BsonDocument();
+		for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+			if (!DRIVER_FIELDS.contains(field.getKey())) {
+				query.append(field.getKey(), field.getValue());
+			}
+		}
+		return query;
+	}
+
+	/**
+	 * Copia o comando trocando os valores literais por "?", mantendo os nomes dos campos,
+	 * os operadores e o tamanho dos arrays. O nome da coleção e as opções de forma
+	 * (sort, projection, limit...) são mantidos como vieram.
+	 */
+	static BsonDocument redact(BsonDocument query, String commandName) {
+		BsonDocument redacted = new BsonDocument();
+		for (Map.Entry<String, BsonValue> field : query.entrySet()) {
+			String key = field.getKey();
+			boolean keep = key.equals(commandName) || SHAPE_FIELDS.contains(key) || SHAPE_STAGES.contains(key);
+			redacted.append(key, keep ? field.getValue() : redactValue(field.getValue()));
+		}
+		return redacted;
+	}
+
+	private static BsonValue redactValue(BsonValue value) {
+		if (value.isDocument()) {
+			BsonDocument redacted = new BsonDocument();
+			for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+				redacted.append(field.getKey(), SHAPE_STAGES.contains(field.getKey())
+						? field.getValue()
+						: redactValue(field.getValue()));
+			}
+			return redacted;
+		}
+		if (value.isArray()) {
+			BsonArray redacted = new BsonArray();
+			for (BsonValue item : value.asArray()) {
+				redacted.add(redactValue(item));
+			}
+			return redacted;
+		}
+		return REDACTED;
+	}
+
+	// Pipelines com $out/$merge gravam dados; o explain deles não é feito
+	private static boolean isWriteStage(BsonDocument query) {
+		if (!query.isArray("pipeline")) {
+			return false;
+		}
+		BsonArray pipeline = query.getArray("pipeline");
+		if (pipeline.isEmpty()) {
+			return false;
+		}
+		BsonDocument last = pipeline.get(pipeline.size() - 1).asDocument();
+		return last.containsKey("$out") || last.containsKey("$merge");
+	}
+}
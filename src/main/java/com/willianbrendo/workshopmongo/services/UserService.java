@@ -1,22 +1,89 @@
 package com.willianbrendo.workshopmongo.services;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.client.result.DeleteResult;
+import com.willianbrendo.workshopmongo.config.CacheConfig;
+import com.willianbrendo.workshopmongo.domain.Post;
 import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.repositories.PostRepository;
 import com.willianbrendo.workshopmongo.repositories.UserRepository;
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
 import com.willianbrendo.workshopmongo.services.exceptions.ObjectNotFoundException;
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+import com.willianbrendo.workshopmongo.services.util.BulkInsert;
+import com.willianbrendo.workshopmongo.services.util.PageCursor;
+import com.willianbrendo.workshopmongo.services.util.Pages;
+import com.willianbrendo.workshopmongo.services.util.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 @Service // 🎯 Anotação que registra esta classe como um componente de serviço do Spring
 public class UserService {
 
+    // Ordenação da paginação keyset: segue o índice padrão de _id
+    static final Sort PAGE_SORT = Sort.by(Sort.Direction.ASC, "id");
+    
+    // Posts de um usuário em ordem de escrita (GET /users/{id}/posts)
+    static final Sort AUTHOR_POSTS_SORT = Sort.by(Sort.Direction.ASC, "date").and(Sort.by(Sort.Direction.ASC, "id"));
+
 	// Injeção de dependência do Repositório
     @Autowired 
     private UserRepository repository; 
     // O Spring inicializa automaticamente o 'repository' quando o UserService é criado.
+    
+    // Tamanho máximo de página aceito na paginação por cursor (application.properties)
+    @Value("${workshop.pagination.max-limit:100}")
+    private int maxPageLimit;
+    
+    // Usado nas leituras em streaming (cursor), que o MongoRepository não oferece
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    // Usado na linha do tempo do usuário (GET /users/{id}/feed)
+    @Autowired
+    private PostRepository postRepository;
+    
+    // Propaga renomeações para as cópias do nome embutidas nos posts e comentários
+    @Autowired
+    private AuthorPropagationService authorPropagation;
+    
+    // Quantos documentos o cursor do MongoDB traz por lote na exportação
+    @Value("${workshop.export.batch-size:500}")
+    private int exportBatchSize;
+    
+    // Quantidade máxima de itens aceita na inserção em lote
+    @Value("${workshop.batch.max-size:1000}")
+    private int maxBatchSize;
+    
+    @Autowired
+    private MeterRegistry registry;
+    
+    // Leituras idênticas e simultâneas do GET /users/{id} compartilham uma única consulta
+    private final SingleFlight<String, User> findSummaryByIdFlight = new SingleFlight<>();
+    
+    @PostConstruct
+    void registerMetrics() {
+        SingleFlight.bindCoalesced(registry, "users.findSummaryById", findSummaryByIdFlight);
+    }
 
     /**
      * Retorna todos os usuários cadastrados no banco de dados MongoDB.
@@ -28,17 +95,69 @@ public class UserService {
     }
     
     /**
-     * Busca um usuário pelo seu ID, lançando exceção se não for encontrado.
-     * @param id O ID (String) do usuário a ser buscado.
-     * @return O objeto User, se encontrado.
+     * Retorna todos os usuários apenas com os campos usados pelo UserDTO (id, nome e email).
+     * Nenhum outro campo (como o antigo array de referências 'posts') é lido do banco.
+     * @return Uma lista de objetos User.
+     */
+    public List<User> findAllSummaries() {
+        return repository.findAllSummaries();
+    }
+    
+    /**
+     * Percorre todos os usuários com um cursor do MongoDB, sem montar a lista em memória.
+     * Os documentos chegam em lotes de 'workshop.export.batch-size'. O antigo array 'posts'
+     * (referências), que pode existir em usuários ainda não migrados, é excluído da consulta.
+     * 🎯 O Stream mantém o cursor aberto: quem chama DEVE fechá-lo (try-with-resources).
+     * @return Um Stream de User ligado ao cursor.
      */
-    public User findById(String id) {
-        // O findById retorna um Optional<User>
-        Optional<User> obj = repository.findById(id);
+    public Stream<User> streamAll() {
+        Query query = new Query().cursorBatchSize(exportBatchSize);
+        query.fields().exclude("posts");
+        return mongoTemplate.stream(query, User.class);
+    }
+    
+    /**
+     * Busca uma página de usuários usando paginação keyset (cursor), em ordem de _id.
+     * Diferente de skip/offset, o custo de cada página não cresce com a posição na coleção:
+     * a consulta é um intervalo sobre o índice de _id.
+     * @param after O cursor da página anterior ('nextCursor'), ou nulo para a primeira página.
+     * @param limit O tamanho da página (1 até workshop.pagination.max-limit).
+     * @return A página com os usuários e o cursor da próxima página.
+     */
+    public CursorPageDTO<User> findPage(String after, int limit) {
+        int size = checkLimit(limit);
+        
+        // Buscamos um item a mais para saber se existe próxima página, sem precisar de 'count'.
+        PageRequest page = PageRequest.of(0, size + 1, PAGE_SORT);
+        List<User> list;
+        if (after == null || after.isEmpty()) {
+            list = repository.findAllBy(page);
+        }
+        else {
+            PageCursor cursor = PageCursor.decode(after, false);
+            list = repository.findByIdGreaterThan(cursor.getId(), page);
+        }
         
-        // 🎯 Se o Optional estiver vazio (ID não existe), lança ResourceNotFoundException (404)
-        // Se contiver um User, retorna o objeto User.
-        return obj.orElseThrow(() -> new ObjectNotFoundException(id));
+        return Pages.toPage(list, size, x -> new PageCursor(null, x.getId()));
+    }
+    
+    /**
+     * Valida o tamanho de página pedido pelo cliente (máximo em workshop.pagination.max-limit).
+     */
+    private int checkLimit(int limit) {
+        return Pages.checkLimit(limit, maxPageLimit);
+    }
+    
+    /**
+     * Busca um usuário pelo ID apenas com os campos usados pelo UserDTO (id, nome e email),
+     * lançando exceção se não for encontrado. É a leitura usada pelo GET /users/{id}.
+     * @param id O ID (String) do usuário a ser buscado.
+     * @return O objeto User (só com os campos do resumo), se encontrado.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id") // 🎯 Consulta o cache antes do banco (ver CacheConfig)
+    public User findSummaryById(String id) {
+        return findSummaryByIdFlight.execute(id,
+                () -> repository.findSummaryById(id).orElseThrow(() -> new ObjectNotFoundException(id)));
     }
     
     /**
@@ -56,18 +175,38 @@ public class UserService {
     }
     
     /**
-     * Deleta um usuário pelo ID, verificando primeiro se ele existe.
+     * Insere vários usuários em uma única operação bulk (modo UNORDERED).
+     * Substitui N chamadas de save() (N idas ao banco) por um comando só; a falha de um
+     * item não impede a inserção dos demais.
+     * @param list Os itens a inserir (1 até workshop.batch.max-size).
+     * @return O ID gerado ou o erro de cada item, na ordem recebida.
+     */
+    public BatchResultDTO insertBatch(List<User> list) {
+        if (list == null || list.isEmpty()) {
+            throw new InvalidRequestException("Batch must not be empty");
+        }
+        if (list.size() > maxBatchSize) {
+            throw new InvalidRequestException("Batch size " + list.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+        return BulkInsert.insertUnordered(mongoTemplate, User.class, list, (obj, id) -> obj.setId(id));
+    }
+    
+    /**
+     * Deleta um usuário pelo ID em uma única ida ao banco.
+     * O número de documentos removidos informado pelo MongoDB indica se o usuário existia:
+     * se for zero, lança ObjectNotFoundException (404).
      * @param id O ID (String) do usuário a ser deletado.
+     * @param expectedVersions As versões informadas no If-Match, ou null para excluir sem conferir.
      */
-    public void delete(String id) {
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id") // Remove a entrada do cache após a exclusão
+    public void delete(String id, List<Long> expectedVersions) {
         
-        // 1. Garante o tratamento de erro 404: 
-        // Usamos o findById para verificar a existência. Se não encontrar,
-        // o findById lança a ResourceNotFoundException.
-        findById(id); 
+        DeleteResult result = mongoTemplate.remove(byId(id, expectedVersions), User.class);
         
-        // 2. Se o findById não lançou exceção, o recurso existe e pode ser deletado.
-        repository.deleteById(id);
+        // 🎯 Nenhum documento removido: o ID não existe (404) ou a versão não confere (412)
+        if (result.getDeletedCount() == 0) {
+            throw notModified(id, expectedVersions);
+        }
         
         // NOTA: Em bancos de dados relacionais, aqui seria o ponto para tratar 
         // a DataIntegrityViolationException (erro 400), mas no MongoDB NoSQL puro,
@@ -77,35 +216,164 @@ public class UserService {
     
     
     /**
-     * Atualiza um usuário existente no banco de dados.
+     * Atualiza um usuário existente no banco de dados (PUT: todos os campos editáveis).
+     * É uma operação atômica (findAndModify com $set) em uma única ida ao banco:
+     * só os campos editáveis são gravados, sem reescrever o documento inteiro.
      * @param id O ID (String) do usuário a ser atualizado.
      * @param obj O objeto User com os novos dados.
+     * @param expectedVersions As versões informadas no If-Match, ou null para atualizar sem conferir.
      * @return O objeto User atualizado.
      */
-    public User update(String id, User obj) {
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id") // Remove a entrada do cache após a atualização
+    public User update(String id, User obj, List<Long> expectedVersions) {
+        User entity = modify(id, expectedVersions, updateData(obj));
         
-        // 1. Busca a Entidade existente. Se não encontrar, lança 404.
-        // Usamos o findById que já implementamos para garantir o tratamento 404.
-        User entity = findById(id); 
+        // Só agenda: a atualização dos posts roda em segundo plano e não atrasa a resposta
+        authorPropagation.propagate(id, entity.getName());
+        return entity;
+    }
+    
+    /**
+     * Atualiza parcialmente um usuário (PATCH): só os campos não nulos de 'obj' são alterados.
+     * Também é uma única operação atômica (findAndModify com $set).
+     * @param id O ID (String) do usuário a ser atualizado.
+     * @param obj O objeto User com os campos a alterar.
+     * @param expectedVersions As versões informadas no If-Match, ou null para atualizar sem conferir.
+     * @return O objeto User atualizado.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id") // Remove a entrada do cache após a atualização
+    public User patch(String id, User obj, List<Long> expectedVersions) {
+        Update update = new Update();
+        if (obj.getName() != null) {
+            update.set("name", obj.getName());
+        }
+        if (obj.getEmail() != null) {
+            update.set("email", obj.getEmail());
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            throw new InvalidRequestException("No fields to update");
+        }
+        User entity = modify(id, expectedVersions, update);
+        if (obj.getName() != null) {
+            authorPropagation.propagate(id, entity.getName());
+        }
+        return entity;
+    }
+    
+    /**
+     * Aplica o $set no documento do ID informado e retorna a versão já atualizada.
+     * O Spring Data soma 1 ao campo @Version na mesma operação. Se nenhum documento casar,
+     * lança ObjectNotFoundException (404) ou, se a versão esperada não confere, PreconditionFailedException (412).
+     */
+    private User modify(String id, List<Long> expectedVersions, Update update) {
+        User entity = mongoTemplate.findAndModify(byId(id, expectedVersions), update, FindAndModifyOptions.options().returnNew(true), User.class);
+        if (entity == null) {
+            throw notModified(id, expectedVersions);
+        }
+        return entity;
+    }
+
+    /**
+     * Método auxiliar que monta o $set com os campos editáveis do objeto
+     * recebido (obj). Os demais campos do documento não são tocados.
+     */
+    static Update updateData(User obj) {
+        return new Update()
+            .set("name", obj.getName())
+            .set("email", obj.getEmail());
+    }
+    
+    /**
+     * Consulta por _id (o mapeamento converte o ID String para ObjectId).
+     */
+    static Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+    
+    /**
+     * Consulta por _id que, com as versões do If-Match, também exige uma delas.
+     * Documentos gravados antes do @Version não têm o campo e valem como versão 0.
+     * Lista vazia (If-Match: *) só exige que o documento exista.
+     */
+    static Query byId(String id, List<Long> expectedVersions) {
+        Query query = byId(id);
+        if (expectedVersions != null && !expectedVersions.isEmpty()) {
+            List<Long> versions = new ArrayList<>(expectedVersions);
+            if (versions.contains(0L)) {
+                versions.add(null);
+            }
+            query.addCriteria(Criteria.where("version").in(versions));
+        }
+        return query;
+    }
+    
+    /**
+     * Exceção para uma escrita condicional que não casou com nenhum documento:
+     * 412 se o documento existe (a versão mudou) ou se o If-Match era '*', 404 se não existe.
+     */
+    private RuntimeException notModified(String id, List<Long> expectedVersions) {
+        if (expectedVersions != null && (expectedVersions.isEmpty() || mongoTemplate.exists(byId(id), User.class))) {
+            return versionMismatch(id, expectedVersions);
+        }
+        return new ObjectNotFoundException(id);
+    }
+    
+    static PreconditionFailedException versionMismatch(String id, List<Long> expectedVersions) {
+        return new PreconditionFailedException(expectedVersions.isEmpty()
+                ? "No current version for id " + id
+                : "Version mismatch for id " + id + ": expected one of " + expectedVersions);
+    }
+    
+    /**
+     * Linha do tempo de um usuário: os posts dele, do mais novo para o mais antigo, com
+     * paginação keyset. A consulta vai direto à coleção de posts pelo índice
+     * (author._id, date desc, _id desc): cada página custo constante, tenha o usuário
+     * dez ou um milhão de posts.
+     * @param id O ID do usuário.
+     * @param before O 'nextCursor' da página anterior, ou nulo para a primeira página.
+     * @param limit O tamanho da página (1 até workshop.pagination.max-limit).
+     * @return A página com os posts e o cursor da próxima página.
+     */
+    public CursorPageDTO<Post> findFeed(String id, String before, int limit) {
+        int size = checkLimit(limit);
+        if (!repository.existsById(id)) {
+            throw new ObjectNotFoundException(id);
+        }
         
-        // 2. Copia os dados do objeto 'obj' (que veio do Controller) para a 'entity' (que veio do banco)
-        updateData(entity, obj);
+        PageRequest page = PageRequest.of(0, size + 1, PostService.PAGE_SORT);
+        List<Post> list;
+        if (before == null || before.isEmpty()) {
+            list = postRepository.findByAuthorId(id, page);
+        }
+        else {
+            PageCursor cursor = PageCursor.decode(before, true);
+            list = postRepository.findByAuthorIdBefore(id, cursor.getDate(), cursor.getId(), page);
+        }
         
-        // 3. O método save() do MongoRepository realiza o UPDATE quando o ID não é nulo.
-        return repository.save(entity);
+        return Pages.toPage(list, size, x -> new PageCursor(x.getDate(), x.getId()));
     }
-
+    
     /**
-     * Método auxiliar privado para copiar os dados relevantes do objeto de origem (obj) 
-     * para o objeto destino (entity), que está sendo monitorado.
-     */
-    private void updateData(User entity, User obj) {
-        // Atualizamos apenas os campos que o cliente enviou e queremos permitir a alteração
-        entity.setName(obj.getName());
-        entity.setEmail(obj.getEmail());
-        // Se você tiver phone e password na sua Entidade, inclua aqui. 
-        // Por exemplo:
-        // entity.setPhone(obj.getPhone());
-        // entity.setPassword(obj.getPassword()); // Cuidado com a senha!
+     * Busca os posts de um usuário, paginados por offset/limit, do mais antigo para o mais novo
+     * (a mesma ordem do antigo array de referências User.posts).
+     * Os posts são encontrados pelo autor (author.id) direto na coleção de posts, pelo índice
+     * (author._id, date, _id); o usuário não guarda mais a lista dos seus posts.
+     * @param id O ID do usuário.
+     * @param offset Posição inicial na lista de posts do usuário.
+     * @param limit Quantidade de posts (1 até workshop.pagination.max-limit).
+     * @return Os posts da página.
+     */
+    public List<Post> findPosts(String id, int offset, int limit) {
+        if (offset < 0) {
+            throw new InvalidRequestException("Invalid offset: " + offset);
+        }
+        int size = checkLimit(limit);
+        if (!repository.existsById(id)) {
+            throw new ObjectNotFoundException(id);
+        }
+        
+        Query query = new Query(Criteria.where("author.id").is(id))
+                .with(AUTHOR_POSTS_SORT).skip(offset).limit(size);
+        return mongoTemplate.find(query, Post.class);
     }
 }
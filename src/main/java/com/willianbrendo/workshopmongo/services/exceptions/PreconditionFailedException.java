@@ -0,0 +1,15 @@
+package com.willianbrendo.workshopmongo.services.exceptions;
+
+/**
+ * Lançada quando o cabeçalho If-Match da requisição não corresponde à versão atual
+ * do documento (outro cliente alterou o documento antes). Mapeada para 412.
+ */
+public class PreconditionFailedException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public PreconditionFailedException(String msg) {
+        super(msg);
+    }
+
+}
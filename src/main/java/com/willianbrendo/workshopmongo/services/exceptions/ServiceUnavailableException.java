@@ -0,0 +1,15 @@
+package com.willianbrendo.workshopmongo.services.exceptions;
+
+/**
+ * Lançada quando o serviço está temporariamente sem capacidade para aceitar a requisição
+ * (ex.: buffer de comentários cheio ou em desligamento). Mapeada para 503 com Retry-After.
+ */
+public class ServiceUnavailableException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public ServiceUnavailableException(String msg) {
+        super(msg);
+    }
+
+}
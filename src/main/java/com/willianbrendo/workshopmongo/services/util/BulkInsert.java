@@ -0,0 +1,73 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.willianbrendo.workshopmongo.dto.BatchItemDTO;
+import com.willianbrendo.workshopmongo.dto.BatchResultDTO;
+
+/**
+ * Inserção em lote com BulkOperations no modo UNORDERED.
+ * Todo o lote vai ao MongoDB em um único comando (ou poucos, se passar do limite do driver),
+ * e a falha de um item não interrompe os demais.
+ */
+public final class BulkInsert {
+
+	private BulkInsert() {
+	}
+
+	/**
+	 * @param template O MongoTemplate.
+	 * @param type A classe da entidade (define a coleção).
+	 * @param items Os itens recebidos do cliente, na ordem original.
+	 * @param idSetter Como atribuir o ID na entidade. Os IDs são gerados aqui, antes do envio,
+	 *                 para que cada item do resultado saiba o seu ID.
+	 * @return O resultado por item (ID ou erro), na ordem original.
+	 */
+	public static <T> BatchResultDTO insertUnordered(MongoTemplate template, Class<T> type, List<T> items,
+			BiConsumer<T, String> idSetter) {
+		
+		List<BatchItemDTO> result = new ArrayList<>(items.size());
+		List<T> toInsert = new ArrayList<>(items.size());
+		// Posição no comando bulk -> posição no array do cliente (itens nulos não são enviados)
+		List<Integer> positions = new ArrayList<>(items.size());
+		
+		for (int i = 0; i < items.size(); i++) {
+			T item = items.get(i);
+			if (item == null) {
+				result.add(new BatchItemDTO(i, null, "Item must not be null"));
+				continue;
+			}
+			String id = new ObjectId().toHexString();
+			idSetter.accept(item, id);
+			toInsert.add(item);
+			positions.add(i);
+			result.add(new BatchItemDTO(i, id, null));
+		}
+		
+		if (!toInsert.isEmpty()) {
+			BulkOperations ops = template.bulkOps(BulkMode.UNORDERED, type);
+			ops.insert(toInsert);
+			try {
+				ops.execute();
+			}
+			catch (BulkOperationException e) {
+				// No modo UNORDERED, os erros trazem o índice (no comando bulk) de cada item que falhou
+				for (BulkWriteError error : e.getErrors()) {
+					BatchItemDTO item = result.get(positions.get(error.getIndex()));
+					item.setId(null);
+					item.setError(error.getMessage());
+				}
+			}
+		}
+		return new BatchResultDTO(result);
+	}
+}
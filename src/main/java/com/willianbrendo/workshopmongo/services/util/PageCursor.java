@@ -0,0 +1,74 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+
+/**
+ * Cursor opaco usado na paginação keyset.
+ * Guarda a chave de ordenação do último documento da página: o '_id' e,
+ * opcionalmente, a 'date' (no caso dos posts, ordenados do mais novo para o mais antigo).
+ * É serializado em Base64 (URL safe) para o cliente não depender do formato interno.
+ */
+public final class PageCursor {
+
+	private static final String SEPARATOR = ":";
+
+	private final Instant date;
+	private final String id;
+
+	public PageCursor(Instant date, String id) {
+		this.date = date;
+		this.id = id;
+	}
+
+	public Instant getDate() {
+		return date;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Converte o cursor para o token enviado ao cliente.
+	 * Formato interno: "millis:id" (com data) ou apenas "id".
+	 */
+	public String encode() {
+		String raw = (date == null) ? id : date.toEpochMilli() + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Lê o token recebido do cliente, lançando InvalidRequestException (400) se estiver malformado.
+	 * @param token O valor do parâmetro 'after'.
+	 * @param withDate Se o cursor deve conter a data (posts) ou só o id (users).
+	 */
+	public static PageCursor decode(String token, boolean withDate) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			Instant date = null;
+			String id = raw;
+			if (withDate) {
+				int idx = raw.indexOf(SEPARATOR);
+				if (idx < 0) {
+					throw new IllegalArgumentException("missing date");
+				}
+				date = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, idx)));
+				id = raw.substring(idx + 1);
+			}
+			if (!ObjectId.isValid(id)) {
+				throw new IllegalArgumentException("invalid id");
+			}
+			return new PageCursor(date, id);
+		}
+		catch (IllegalArgumentException e) {
+			// NumberFormatException também é uma IllegalArgumentException
+			throw new InvalidRequestException("Invalid cursor: " + token);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+
+/**
+ * Regras comuns da paginação por cursor, usadas pelos Services servlet e reativos.
+ */
+public final class Pages {
+
+	private Pages() {
+	}
+
+	/**
+	 * Valida o tamanho de página pedido pelo cliente.
+	 * Valores acima do máximo configurado são reduzidos ao máximo.
+	 */
+	public static int checkLimit(int limit, int max) {
+		if (limit < 1) {
+			throw new InvalidRequestException("Invalid limit: " + limit);
+		}
+		return Math.min(limit, max);
+	}
+
+	/**
+	 * Monta a página a partir de uma consulta que buscou 'size + 1' itens:
+	 * se o item extra veio, existe próxima página e o cursor aponta para o último item exibido.
+	 * @param list O resultado da consulta (até size + 1 itens).
+	 * @param size O tamanho da página.
+	 * @param cursorOf Como obter o cursor (chave de ordenação) de um item.
+	 */
+	public static <T> CursorPageDTO<T> toPage(List<T> list, int size, Function<T, PageCursor> cursorOf) {
+		String next = null;
+		if (list.size() > size) {
+			list = list.subList(0, size);
+			next = cursorOf.apply(list.get(size - 1)).encode();
+		}
+		return new CursorPageDTO<>(list, next);
+	}
+}
@@ -0,0 +1,51 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular sem lock que guarda os últimos N itens adicionados.
+ * Cada escrita reserva uma posição com um getAndIncrement e grava no slot
+ * correspondente; quando o buffer enche, os itens mais antigos são sobrescritos.
+ * A leitura é uma fotografia aproximada: sob escrita concorrente pode trazer
+ * um item recém-sobrescrito, o que é aceitável para fins de diagnóstico.
+ */
+public class RingBuffer<T> {
+
+	private final AtomicReferenceArray<T> slots;
+	private final AtomicLong next = new AtomicLong();
+
+	public RingBuffer(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.slots = new AtomicReferenceArray<>(capacity);
+	}
+
+	public void add(T item) {
+		long position = next.getAndIncrement();
+		slots.set((int) (position % slots.length()), item);
+	}
+
+	/**
+	 * @return Os itens guardados, do mais recente para o mais antigo.
+	 */
+	public List<T> snapshot() {
+		long last = next.get();
+		int count = (int) Math.min(last, slots.length());
+		List<T> list = new ArrayList<>(count);
+		for (long position = last - 1; position >= last - count; position--) {
+			T item = slots.get((int) (position % slots.length()));
+			if (item != null) {
+				list.add(item);
+			}
+		}
+		return list;
+	}
+
+	public int capacity() {
+		return slots.length();
+	}
+}
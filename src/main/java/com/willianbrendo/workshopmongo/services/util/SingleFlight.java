@@ -0,0 +1,92 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa leituras idênticas e simultâneas ("single-flight"): enquanto a consulta de uma chave
+ * está em andamento, quem pedir a mesma chave espera por ela e recebe o mesmo resultado
+ * (ou a mesma exceção), em vez de fazer outra consulta ao banco.
+ *
+ * Não é um cache: a chave sai do mapa assim que a consulta termina, e a próxima chamada
+ * consulta de novo. Os chamadores que compartilharam uma consulta recebem a mesma instância.
+ */
+public final class SingleFlight<K, V> {
+
+	public static final String COALESCED_METRIC = "workshop.singleflight.coalesced";
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * @param key A chave da consulta.
+	 * @param loader A consulta, executada só pela primeira chamada de cada grupo.
+	 * @return O resultado da consulta (própria ou compartilhada).
+	 */
+	public V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			coalesced.increment();
+			return await(existing);
+		}
+		try {
+			V value = loader.get();
+			call.complete(value);
+			return value;
+		}
+		catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlight.remove(key, call);
+		}
+	}
+
+	/**
+	 * @return Quantas chamadas aproveitaram uma consulta já em andamento.
+	 */
+	public long coalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return Quantas consultas estão em andamento agora.
+	 */
+	public int inFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Publica as chamadas agrupadas no contador workshop.singleflight.coalesced{query=...}.
+	 */
+	public static void bindCoalesced(MeterRegistry registry, String query, SingleFlight<?, ?> flight) {
+		FunctionCounter.builder(COALESCED_METRIC, flight, SingleFlight::coalesced)
+				.description("Leituras que aproveitaram uma consulta idêntica já em andamento")
+				.tag("query", query)
+				.register(registry);
+	}
+
+	private static <V> V await(CompletableFuture<V> call) {
+		try {
+			return call.join();
+		}
+		catch (CompletionException e) {
+			// A exceção da consulta original chega embrulhada: repassa a original (ex.: ObjectNotFoundException)
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de fichas sem trava, no formato GCRA (Generic Cell Rate Algorithm): em vez de
+ * contar fichas e reabastecer com um relógio, guarda só o "horário teórico de chegada" (TAT)
+ * da próxima requisição em um AtomicLong. Cada requisição admitida empurra o TAT um intervalo
+ * (1 / taxa) para frente; se ele passaria de 'capacidade' intervalos à frente de agora, o
+ * balde está vazio.
+ *
+ * Admitir é um único compareAndSet, sem lock e sem thread de reabastecimento.
+ * Os horários são em nanossegundos de um relógio monotônico (System.nanoTime()).
+ */
+public final class TokenBucket {
+
+	private final long intervalNanos;
+	private final long burstNanos;
+	private final AtomicLong theoreticalArrival;
+
+	/**
+	 * @param ratePerSecond Fichas repostas por segundo (taxa sustentada).
+	 * @param capacity Tamanho do balde: quantas requisições podem passar de uma vez.
+	 * @param now O horário atual (o balde começa cheio).
+	 */
+	public TokenBucket(double ratePerSecond, int capacity, long now) {
+		if (ratePerSecond <= 0 || capacity < 1) {
+			throw new IllegalArgumentException("rate must be positive and capacity at least 1");
+		}
+		this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+		this.burstNanos = intervalNanos * capacity;
+		this.theoreticalArrival = new AtomicLong(now);
+	}
+
+	/**
+	 * Tenta consumir uma ficha.
+	 * @param now O horário atual.
+	 * @return 0 se a requisição foi admitida; senão, quantos nanossegundos esperar pela próxima ficha.
+	 */
+	public long tryAcquire(long now) {
+		while (true) {
+			long tat = theoreticalArrival.get();
+			long next = Math.max(tat, now) + intervalNanos;
+			long ahead = next - now;
+			if (ahead > burstNanos) {
+				return ahead - burstNanos;
+			}
+			if (theoreticalArrival.compareAndSet(tat, next)) {
+				return 0;
+			}
+		}
+	}
+}
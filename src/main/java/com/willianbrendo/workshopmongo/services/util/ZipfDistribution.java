@@ -0,0 +1,49 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribuição de Zipf sobre as posições 0..n-1: a posição k sai com probabilidade
+ * proporcional a 1 / (k + 1)^expoente. Com expoente perto de 1, poucas posições concentram
+ * a maior parte das amostras (autores que postam muito, posts muito comentados).
+ *
+ * A tabela acumulada é calculada uma vez (n doubles); cada amostra é uma busca binária.
+ * Imutável depois de criada, pode ser usada por várias threads, cada uma com seu gerador.
+ */
+public final class ZipfDistribution {
+
+	private final double[] cumulative;
+
+	public ZipfDistribution(int n, double exponent) {
+		if (n < 1) {
+			throw new IllegalArgumentException("n must be at least 1");
+		}
+		if (exponent < 0) {
+			throw new IllegalArgumentException("exponent must not be negative");
+		}
+		cumulative = new double[n];
+		double sum = 0;
+		for (int k = 0; k < n; k++) {
+			sum += 1.0 / Math.pow(k + 1, exponent);
+			cumulative[k] = sum;
+		}
+		for (int k = 0; k < n; k++) {
+			cumulative[k] /= sum;
+		}
+	}
+
+	public int size() {
+		return cumulative.length;
+	}
+
+	/**
+	 * @return Uma posição em [0, size()), as primeiras com mais probabilidade.
+	 */
+	public int sample(RandomGenerator random) {
+		int k = Arrays.binarySearch(cumulative, random.nextDouble());
+		// Sem acerto exato, binarySearch devolve -(ponto de inserção) - 1
+		k = k < 0 ? -k - 1 : k;
+		return Math.min(k, cumulative.length - 1);
+	}
+}
@@ -0,0 +1,27 @@
+package com.willianbrendo.workshopmongo.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+
+class NativeHintsConfigTest {
+
+	@Test
+	void registersMongoMappingTypes() {
+		RuntimeHints hints = new RuntimeHints();
+		new NativeHintsConfig.MongoMappingHints().registerHints(hints, getClass().getClassLoader());
+
+		for (Class<?> type : new Class<?>[] { Post.class, User.class, CommentDTO.class }) {
+			assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+					.withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+					.test(hints), type.getSimpleName());
+		}
+	}
+}
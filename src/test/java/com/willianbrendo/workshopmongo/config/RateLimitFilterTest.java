@@ -0,0 +1,62 @@
+package com.willianbrendo.workshopmongo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+	private SimpleMeterRegistry registry;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setup() {
+		registry = new SimpleMeterRegistry();
+		filter = new RateLimitFilter();
+		ReflectionTestUtils.setField(filter, "registry", registry);
+		ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "clientHeader", "");
+		ReflectionTestUtils.setField(filter, "defaultRate", 50.0);
+		ReflectionTestUtils.setField(filter, "defaultBurst", 100);
+		ReflectionTestUtils.setField(filter, "endpoints", List.of("GET /posts=1:1"));
+		ReflectionTestUtils.setField(filter, "exclude", List.of("/actuator/**"));
+		ReflectionTestUtils.setField(filter, "maxClients", 100L);
+		ReflectionTestUtils.setField(filter, "idleExpiry", Duration.ofMinutes(10));
+		ReflectionTestUtils.invokeMethod(filter, "init");
+	}
+
+	@Test
+	void headUsesTheGetRuleAndBucket() throws Exception {
+		assertEquals(200, send("HEAD", "/posts"));
+		assertEquals(429, send("HEAD", "/posts"));
+		assertEquals(429, send("GET", "/posts"));
+		assertEquals(2.0, registry.counter("workshop.ratelimit.requests", "endpoint", "GET /posts", "outcome", "rejected").count());
+	}
+
+	@Test
+	void otherMethodsFallBackToTheDefaultRule() throws Exception {
+		assertEquals(200, send("GET", "/posts"));
+		assertEquals(200, send("POST", "/posts"));
+		assertEquals(1.0, registry.counter("workshop.ratelimit.requests", "endpoint", "default", "outcome", "admitted").count());
+	}
+
+	private int send(String method, String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,40 @@
+package com.willianbrendo.workshopmongo.resources.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+
+class DateParamsTest {
+
+	@Test
+	void dayCoversTheWholeUtcDay() {
+		assertEquals(Instant.parse("2018-03-21T00:00:00Z"), DateParams.start("2018-03-21", "minDate"));
+		assertEquals(Instant.parse("2018-03-22T00:00:00Z"), DateParams.end("2018-03-21", "maxDate"));
+	}
+
+	@Test
+	void instantIsUsedAsIs() {
+		Instant instant = Instant.parse("2018-03-21T10:15:30Z");
+		assertEquals(instant, DateParams.start("2018-03-21T10:15:30Z", "minDate"));
+		assertEquals(instant, DateParams.end("2018-03-21T10:15:30Z", "maxDate"));
+	}
+
+	@Test
+	void absentMeansNoBound() {
+		assertNull(DateParams.start(null, "minDate"));
+		assertNull(DateParams.end(" ", "maxDate"));
+	}
+
+	@Test
+	void invalidValueIsABadRequest() {
+		assertThrows(InvalidRequestException.class, () -> DateParams.start("2018-3-1", "minDate"));
+		assertThrows(InvalidRequestException.class, () -> DateParams.start("2018-02-30", "minDate"));
+		assertThrows(InvalidRequestException.class, () -> DateParams.end("2018-03-21T10:00:00", "maxDate"));
+	}
+}
@@ -0,0 +1,47 @@
+package com.willianbrendo.workshopmongo.resources.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.willianbrendo.workshopmongo.services.exceptions.PreconditionFailedException;
+
+class ETagsTest {
+
+	@Test
+	void unversionedDocumentIsVersionZero() {
+		assertEquals("\"0\"", ETags.of(null));
+		assertEquals("\"7\"", ETags.of(7L));
+	}
+
+	@Test
+	void parsesStrongTag() {
+		assertEquals(List.of(7L), ETags.parseIfMatch("\"7\""));
+	}
+
+	@Test
+	void weakTagFailsThePrecondition() {
+		assertThrows(PreconditionFailedException.class, () -> ETags.parseIfMatch("W/\"7\""));
+	}
+
+	@Test
+	void listMatchesAnyListedStrongVersion() {
+		assertEquals(List.of(1L, 2L), ETags.parseIfMatch("\"1\", \"2\""));
+		assertEquals(List.of(3L), ETags.parseIfMatch("W/\"2\", \"abc\",\"3\""));
+	}
+
+	@Test
+	void absentMeansNoConditionAndWildcardMeansExists() {
+		assertNull(ETags.parseIfMatch(null));
+		assertEquals(List.of(), ETags.parseIfMatch("*"));
+	}
+
+	@Test
+	void foreignTagFailsThePrecondition() {
+		assertThrows(PreconditionFailedException.class, () -> ETags.parseIfMatch("\"abc\""));
+	}
+}
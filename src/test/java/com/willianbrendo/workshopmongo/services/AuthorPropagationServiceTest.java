@@ -0,0 +1,172 @@
+package com.willianbrendo.workshopmongo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.result.UpdateResult;
+import com.willianbrendo.workshopmongo.domain.Post;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthorPropagationServiceTest {
+
+	private static final String USER_ID = "507f1f77bcf86cd799439011";
+
+	private MongoTemplate template;
+	private SimpleMeterRegistry registry;
+	private AuthorPropagationService service;
+
+	// Nome (do critério author.name $ne) de cada busca de lote, na ordem em que aconteceram
+	private final Queue<String> searchedNames = new ConcurrentLinkedQueue<>();
+
+	@BeforeEach
+	void setup() {
+		template = mock(MongoTemplate.class);
+		when(template.updateMulti(any(Query.class), any(Update.class), eq(Post.class)))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null));
+		registry = new SimpleMeterRegistry();
+
+		service = new AuthorPropagationService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", template);
+		ReflectionTestUtils.setField(service, "cacheManager", new NoOpCacheManager());
+		ReflectionTestUtils.setField(service, "registry", registry);
+		ReflectionTestUtils.setField(service, "concurrency", 1);
+		ReflectionTestUtils.setField(service, "queueCapacity", 10);
+		ReflectionTestUtils.setField(service, "batchSize", 2);
+		ReflectionTestUtils.setField(service, "drainTimeout", Duration.ofSeconds(5));
+		service.init();
+	}
+
+	@Test
+	void updatesPostsInBoundedBatches() {
+		AtomicInteger postBatches = new AtomicInteger();
+		when(template.find(any(Query.class), eq(Post.class))).thenAnswer(inv -> {
+			Query query = inv.getArgument(0);
+			// Posts: um lote cheio e um parcial; comentários: nada a atualizar
+			if (!query.getQueryObject().containsKey("author.id")) {
+				return List.of();
+			}
+			return postBatches.getAndIncrement() == 0 ? List.of(post("1"), post("2")) : List.of(post("3"));
+		});
+
+		service.propagate(USER_ID, "Maria");
+		service.shutdown();
+
+		verify(template, times(2)).updateMulti(any(Query.class), any(Update.class), eq(Post.class));
+		assertEquals(2.0, registry.counter("workshop.author.propagation.documents", "target", "posts").count());
+		assertEquals(1.0, jobs("completed"));
+	}
+
+	@Test
+	void coalescesRenamesThatArriveDuringAJob() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(template.find(any(Query.class), eq(Post.class))).thenAnswer(inv -> {
+			searchedNames.add(name(inv.getArgument(0)));
+			if (started.getCount() > 0) {
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return List.of();
+		});
+
+		service.propagate(USER_ID, "A");
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		service.propagate(USER_ID, "B");
+		service.propagate(USER_ID, "C");
+		release.countDown();
+		service.shutdown();
+
+		// O nome intermediário nunca é gravado: o trabalho recomeça direto com o mais recente
+		assertEquals(List.of("A", "C", "C"), List.copyOf(searchedNames));
+		assertEquals(1.0, jobs("superseded"));
+		assertEquals(1.0, jobs("completed"));
+		assertEquals(0.0, registry.get("workshop.author.propagation.pending").gauge().value());
+	}
+
+	@Test
+	void retriesWithNewerNameAfterFailure() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(template.find(any(Query.class), eq(Post.class))).thenAnswer(inv -> {
+			searchedNames.add(name(inv.getArgument(0)));
+			if (started.getCount() > 0) {
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				throw new IllegalStateException("timeout");
+			}
+			return List.of();
+		});
+
+		service.propagate(USER_ID, "A");
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		service.propagate(USER_ID, "B");
+		release.countDown();
+		// O reagendamento acontece depois da falha; com o executor já desligado ele seria recusado
+		awaitJobs("completed");
+		service.shutdown();
+
+		assertEquals(List.of("A", "B", "B"), List.copyOf(searchedNames));
+		assertEquals(1.0, jobs("failed"));
+		assertEquals(1.0, jobs("retried"));
+		assertEquals(1.0, jobs("completed"));
+	}
+
+	@Test
+	void failureWithoutNewerNameReleasesTheUser() {
+		when(template.find(any(Query.class), eq(Post.class))).thenThrow(new IllegalStateException("timeout"));
+
+		service.propagate(USER_ID, "A");
+		service.shutdown();
+
+		assertEquals(1.0, jobs("failed"));
+		assertEquals(0.0, jobs("retried"));
+		assertEquals(0.0, registry.get("workshop.author.propagation.pending").gauge().value());
+		assertFalse(registry.find("workshop.author.propagation.jobs").tag("result", "dropped").counters().iterator().hasNext());
+	}
+
+	private void awaitJobs(String result) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (jobs(result) == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private double jobs(String result) {
+		return registry.counter("workshop.author.propagation.jobs", "result", result).count();
+	}
+
+	private static String name(Query query) {
+		String criteria = query.getQueryObject().toJson();
+		return criteria.replaceAll(".*\"\\$ne\": \"([^\"]*)\".*", "$1");
+	}
+
+	private static Post post(String id) {
+		Post post = new Post();
+		post.setId(id);
+		return post;
+	}
+}
@@ -0,0 +1,111 @@
+package com.willianbrendo.workshopmongo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.domain.User;
+import com.willianbrendo.workshopmongo.dto.AuthorDTO;
+import com.willianbrendo.workshopmongo.dto.CommentDTO;
+import com.willianbrendo.workshopmongo.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CommentWriteBehindServiceTest {
+
+	private static final String POST_ID = "507f1f77bcf86cd799439011";
+
+	private MongoCollection<Document> collection;
+	private CommentWriteBehindService service;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setup() {
+		MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+		MongoMappingContext context = new MongoMappingContext();
+		context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		context.afterPropertiesSet();
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+
+		collection = mock(MongoCollection.class);
+		when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+				.thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+		MongoTemplate template = mock(MongoTemplate.class);
+		when(template.getConverter()).thenReturn(converter);
+		when(template.getCollectionName(Post.class)).thenReturn("posts");
+		when(template.getCollection(anyString())).thenReturn(collection);
+
+		service = new CommentWriteBehindService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", template);
+		ReflectionTestUtils.setField(service, "cacheManager", new NoOpCacheManager());
+		ReflectionTestUtils.setField(service, "registry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "capacity", 10);
+		ReflectionTestUtils.setField(service, "batchSize", 100);
+		ReflectionTestUtils.setField(service, "flushInterval", Duration.ofHours(1));
+		ReflectionTestUtils.setField(service, "writeConcern", "");
+		ReflectionTestUtils.setField(service, "offerTimeout", Duration.ZERO);
+		ReflectionTestUtils.setField(service, "drainTimeout", Duration.ofSeconds(5));
+		ReflectionTestUtils.setField(service, "maxEmbeddedComments", 500);
+		service.init();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushIncrementsPostVersion() {
+		service.start();
+		service.submit(POST_ID, comment("a"));
+		service.submit(POST_ID, comment("b"));
+		service.stop();
+
+		ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+		verify(collection).bulkWrite(models.capture(), any(BulkWriteOptions.class));
+		assertEquals(1, models.getValue().size());
+		Document update = (Document) ((UpdateOneModel<Document>) models.getValue().get(0)).getUpdate();
+		// O ETag é a versão: o flush precisa mudá-la como o $push síncrono (via MongoTemplate) muda
+		assertEquals(new Document("version", 1), update.get("$inc"));
+		Document push = (Document) ((Document) update.get("$push")).get("comments");
+		assertEquals(2, ((List<?>) push.get("$each")).size());
+	}
+
+	@Test
+	void rejectsAfterStop() {
+		service.start();
+		service.stop();
+
+		assertThrows(ServiceUnavailableException.class, () -> service.submit(POST_ID, comment("late")));
+	}
+
+	private static CommentDTO comment(String text) {
+		return new CommentDTO(text, Instant.now(), new AuthorDTO(new User(POST_ID, "Maria", "maria@example.com")));
+	}
+}
@@ -0,0 +1,132 @@
+package com.willianbrendo.workshopmongo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.willianbrendo.workshopmongo.domain.Post;
+import com.willianbrendo.workshopmongo.dto.CursorPageDTO;
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+import com.willianbrendo.workshopmongo.services.exceptions.ServiceUnavailableException;
+import com.willianbrendo.workshopmongo.services.util.PageCursor;
+
+class PostServiceTest {
+
+	private static final Instant MIN = Instant.parse("2018-03-01T00:00:00Z");
+	private static final Instant MAX = Instant.parse("2018-04-01T00:00:00Z");
+
+	private MongoTemplate template;
+	private PostService service;
+
+	@BeforeEach
+	void setup() {
+		template = mock(MongoTemplate.class);
+		service = new PostService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", template);
+		ReflectionTestUtils.setField(service, "maxPageLimit", 100);
+		ReflectionTestUtils.setField(service, "searchMaxTime", Duration.ofSeconds(2));
+	}
+
+	@Test
+	void fullSearchUsesTextIndexWithinDateRange() {
+		when(template.find(any(Query.class), eq(Post.class))).thenReturn(List.of());
+
+		service.fullSearch("viagem", MIN, MAX, null, 20);
+
+		Query query = captureQuery();
+		Document filter = query.getQueryObject();
+		assertEquals("viagem", filter.get("$text", Document.class).getString("$search"));
+		Document date = filter.getList("$and", Document.class).get(0).get("date", Document.class);
+		assertEquals(MIN, date.get("$gte"));
+		assertEquals(MAX, date.get("$lt"));
+		assertFalse(filter.toString().contains("$regex"));
+		assertEquals(new Document("date", -1).append("id", -1), query.getSortObject());
+		assertEquals(21, query.getLimit());
+		assertEquals(2000L, query.getMeta().getMaxTimeMsec());
+		assertNull(query.getHint());
+	}
+
+	@Test
+	void fullSearchWithoutTextIsADateRangeScan() {
+		when(template.find(any(Query.class), eq(Post.class))).thenReturn(List.of());
+
+		service.fullSearch("", MIN, null, null, 20);
+
+		Document filter = captureQuery().getQueryObject();
+		assertFalse(filter.containsKey("$text"));
+		assertEquals(MIN, filter.getList("$and", Document.class).get(0).get("date", Document.class).get("$gte"));
+	}
+
+	@Test
+	void fullSearchPagesByDateAndIdCursor() {
+		Post first = new Post("5aa0c0de0000000000000003", Instant.parse("2018-03-20T00:00:00Z"), "t", "b", null);
+		Post second = new Post("5aa0c0de0000000000000002", Instant.parse("2018-03-10T00:00:00Z"), "t", "b", null);
+		Post extra = new Post("5aa0c0de0000000000000001", Instant.parse("2018-03-05T00:00:00Z"), "t", "b", null);
+		when(template.find(any(Query.class), eq(Post.class))).thenReturn(List.of(first, second, extra));
+
+		CursorPageDTO<Post> page = service.fullSearch("viagem", null, null, null, 2);
+
+		assertEquals(List.of(first, second), page.getContent());
+		PageCursor next = PageCursor.decode(page.getNextCursor(), true);
+		assertEquals(second.getDate(), next.getDate());
+		assertEquals(second.getId(), next.getId());
+
+		service.fullSearch("viagem", null, null, page.getNextCursor(), 2);
+		// Segunda chamada: o cursor vira o $or (data menor, ou mesma data e _id menor)
+		ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+		verify(template, times(2)).find(captor.capture(), eq(Post.class));
+		String filter = captor.getAllValues().get(1).getQueryObject().toString();
+		assertTrue(filter.contains("$or="), filter);
+	}
+
+	@Test
+	void fullSearchRejectsEmptyRange() {
+		assertThrows(InvalidRequestException.class, () -> service.fullSearch("", MAX, MIN, null, 20));
+		assertThrows(InvalidRequestException.class, () -> service.fullSearch("", MIN, MIN, null, 20));
+	}
+
+	@Test
+	void fullSearchTimeoutIsServiceUnavailable() {
+		when(template.find(any(Query.class), eq(Post.class))).thenThrow(new UncategorizedMongoDbException(
+				"timeout", new MongoExecutionTimeoutException(50, "operation exceeded time limit")));
+
+		assertThrows(ServiceUnavailableException.class, () -> service.fullSearch("viagem", null, null, null, 20));
+	}
+
+	@Test
+	void byIdAcceptsAnyIfMatchVersion() {
+		Document filter = PostService.byId("5aa0c0de0000000000000001", List.of(3L, 0L)).getQueryObject();
+		// Versão 0 também casa com documentos gravados antes do @Version (sem o campo)
+		assertEquals(Arrays.asList(3L, 0L, null), filter.get("version", Document.class).get("$in"));
+		assertFalse(PostService.byId("5aa0c0de0000000000000001", List.of()).getQueryObject().containsKey("version"));
+	}
+
+	private Query captureQuery() {
+		ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+		verify(template).find(captor.capture(), eq(Post.class));
+		return captor.getValue();
+	}
+}
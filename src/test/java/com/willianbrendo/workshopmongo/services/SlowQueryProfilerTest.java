@@ -0,0 +1,73 @@
+package com.willianbrendo.workshopmongo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import com.willianbrendo.workshopmongo.dto.SlowQueryDTO;
+
+class SlowQueryProfilerTest {
+
+	@Test
+	void summarizesFindExplain() {
+		BsonDocument explain = BsonDocument.parse("""
+				{ queryPlanner: { winningPlan: { stage: 'PROJECTION_SIMPLE', inputStage: { stage: 'COLLSCAN' } } },
+				  executionStats: { nReturned: 2, totalKeysExamined: 0, totalDocsExamined: 1000 } }
+				""");
+		SlowQueryDTO entry = new SlowQueryDTO();
+
+		SlowQueryProfiler.summarize(entry, explain);
+
+		assertEquals(List.of("PROJECTION_SIMPLE", "COLLSCAN"), entry.getPlanStages());
+		assertTrue(entry.getCollectionScan());
+		assertEquals(1000L, entry.getDocsExamined());
+		assertEquals(2L, entry.getDocsReturned());
+	}
+
+	@Test
+	void summarizesAggregateExplain() {
+		BsonDocument explain = BsonDocument.parse("""
+				{ stages: [ { $cursor: {
+				    queryPlanner: { winningPlan: { queryPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN' } } } },
+				    executionStats: { nReturned: 5, totalKeysExamined: 5, totalDocsExamined: 5 } } },
+				  { $sort: { sortKey: { date: -1 } } } ] }
+				""");
+		SlowQueryDTO entry = new SlowQueryDTO();
+
+		SlowQueryProfiler.summarize(entry, explain);
+
+		assertEquals(List.of("FETCH", "IXSCAN"), entry.getPlanStages());
+		assertFalse(entry.getCollectionScan());
+		assertEquals(5L, entry.getKeysExamined());
+	}
+
+	@Test
+	void redactsFilterValuesKeepingShape() {
+		BsonDocument find = BsonDocument.parse("""
+				{ find: 'user', filter: { email: 'maria@gmail.com', name: { $in: ['Maria', 'Alex'] } },
+				  sort: { name: 1 }, limit: 10 }
+				""");
+
+		assertEquals(BsonDocument.parse("""
+				{ find: 'user', filter: { email: '?', name: { $in: ['?', '?'] } }, sort: { name: 1 }, limit: 10 }
+				"""), SlowQueryProfiler.redact(find, "find"));
+	}
+
+	@Test
+	void redactsPipelineMatchKeepingShapeStages() {
+		BsonDocument aggregate = BsonDocument.parse("""
+				{ aggregate: 'post', pipeline: [ { $match: { $text: { $search: 'viagem' } } },
+				  { $sort: { date: -1 } }, { $limit: 20 } ], cursor: {} }
+				""");
+
+		assertEquals(BsonDocument.parse("""
+				{ aggregate: 'post', pipeline: [ { $match: { $text: { $search: '?' } } },
+				  { $sort: { date: -1 } }, { $limit: 20 } ], cursor: {} }
+				"""), SlowQueryProfiler.redact(aggregate, "aggregate"));
+	}
+}
@@ -0,0 +1,40 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.willianbrendo.workshopmongo.services.exceptions.InvalidRequestException;
+
+class PageCursorTest {
+
+	private static final String ID = "507f1f77bcf86cd799439011";
+
+	@Test
+	void roundTripWithDate() {
+		Instant date = Instant.ofEpochMilli(1700000000123L);
+		PageCursor cursor = PageCursor.decode(new PageCursor(date, ID).encode(), true);
+
+		assertEquals(date, cursor.getDate());
+		assertEquals(ID, cursor.getId());
+	}
+
+	@Test
+	void roundTripWithoutDate() {
+		PageCursor cursor = PageCursor.decode(new PageCursor(null, ID).encode(), false);
+
+		assertNull(cursor.getDate());
+		assertEquals(ID, cursor.getId());
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertThrows(InvalidRequestException.class, () -> PageCursor.decode("not base64!", false));
+		assertThrows(InvalidRequestException.class, () -> PageCursor.decode(new PageCursor(null, ID).encode(), true));
+		assertThrows(InvalidRequestException.class, () -> PageCursor.decode(new PageCursor(null, "abc").encode(), false));
+	}
+}
@@ -0,0 +1,47 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+	@Test
+	void snapshotIsNewestFirst() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		buffer.add(1);
+		buffer.add(2);
+
+		assertEquals(List.of(2, 1), buffer.snapshot());
+	}
+
+	@Test
+	void overwritesOldestWhenFull() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		for (int i = 1; i <= 5; i++) {
+			buffer.add(i);
+		}
+
+		assertEquals(List.of(5, 4, 3), buffer.snapshot());
+	}
+
+	@Test
+	void keepsCapacityUnderConcurrentWrites() throws InterruptedException {
+		RingBuffer<Integer> buffer = new RingBuffer<>(16);
+		Thread[] writers = new Thread[4];
+		for (int w = 0; w < writers.length; w++) {
+			writers[w] = Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					buffer.add(i);
+				}
+			});
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		assertEquals(16, buffer.snapshot().size());
+	}
+}
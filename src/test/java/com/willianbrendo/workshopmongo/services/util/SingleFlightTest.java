@@ -0,0 +1,86 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentCallersShareOneLoad() throws InterruptedException {
+		SingleFlight<String, Object> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Object value = new Object();
+		List<Object> results = new ArrayList<>();
+
+		Thread leader = Thread.ofPlatform().start(() -> flight.execute("a", () -> {
+			loads.incrementAndGet();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return value;
+		}));
+		while (flight.inFlight() == 0) {
+			Thread.onSpinWait();
+		}
+
+		Thread[] followers = new Thread[4];
+		for (int i = 0; i < followers.length; i++) {
+			followers[i] = Thread.ofPlatform().start(() -> {
+				Object result = flight.execute("a", () -> {
+					loads.incrementAndGet();
+					return new Object();
+				});
+				synchronized (results) {
+					results.add(result);
+				}
+			});
+		}
+		while (flight.coalesced() < followers.length) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+		leader.join();
+		for (Thread follower : followers) {
+			follower.join();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(followers.length, results.size());
+		results.forEach(result -> assertSame(value, result));
+		assertEquals(0, flight.inFlight());
+	}
+
+	@Test
+	void sequentialCallsLoadAgain() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+
+		flight.execute("a", loads::incrementAndGet);
+		flight.execute("a", loads::incrementAndGet);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, flight.coalesced());
+	}
+
+	@Test
+	void failureIsRethrownAndKeyIsReleased() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+		assertThrows(IllegalStateException.class, () -> flight.execute("a", () -> {
+			throw new IllegalStateException("boom");
+		}));
+		assertEquals(1, flight.execute("a", () -> 1));
+	}
+}
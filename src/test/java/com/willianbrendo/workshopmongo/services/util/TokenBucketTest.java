@@ -0,0 +1,62 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void admitsBurstThenRejects() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(0));
+		}
+		// Próxima ficha em 1/10 s
+		assertEquals(SECOND / 10, bucket.tryAcquire(0));
+	}
+
+	@Test
+	void refillsAtRate() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+		assertEquals(0, bucket.tryAcquire(0));
+		assertTrue(bucket.tryAcquire(SECOND / 20) > 0);
+		assertEquals(0, bucket.tryAcquire(SECOND / 10));
+	}
+
+	@Test
+	void idleTimeDoesNotAccumulateBeyondCapacity() {
+		TokenBucket bucket = new TokenBucket(10, 3, 0);
+		long later = 60 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(later));
+		}
+		assertTrue(bucket.tryAcquire(later) > 0);
+	}
+
+	@Test
+	void admitsExactlyCapacityUnderConcurrentCalls() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1, 1000, 0);
+		AtomicInteger admitted = new AtomicInteger();
+		Thread[] callers = new Thread[8];
+		for (int t = 0; t < callers.length; t++) {
+			callers[t] = Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 1000; i++) {
+					if (bucket.tryAcquire(0) == 0) {
+						admitted.incrementAndGet();
+					}
+				}
+			});
+		}
+		for (Thread caller : callers) {
+			caller.join();
+		}
+
+		assertEquals(1000, admitted.get());
+	}
+}
@@ -0,0 +1,49 @@
+package com.willianbrendo.workshopmongo.services.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class ZipfDistributionTest {
+
+	@Test
+	void samplesStayInRange() {
+		ZipfDistribution zipf = new ZipfDistribution(10, 1.0);
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < 100_000; i++) {
+			int k = zipf.sample(random);
+			assertTrue(k >= 0 && k < 10);
+		}
+	}
+
+	@Test
+	void firstPositionsGetMostSamples() {
+		ZipfDistribution zipf = new ZipfDistribution(1000, 1.0);
+		SplittableRandom random = new SplittableRandom(42);
+		int samples = 100_000;
+		int top10 = 0;
+		for (int i = 0; i < samples; i++) {
+			if (zipf.sample(random) < 10) {
+				top10++;
+			}
+		}
+		// H(10) / H(1000) ~= 2.93 / 7.49 ~= 39% das amostras nas 10 primeiras de 1000 posições
+		assertEquals(0.39, (double) top10 / samples, 0.02);
+	}
+
+	@Test
+	void zeroExponentIsUniform() {
+		ZipfDistribution zipf = new ZipfDistribution(4, 0.0);
+		SplittableRandom random = new SplittableRandom(42);
+		int[] counts = new int[4];
+		for (int i = 0; i < 40_000; i++) {
+			counts[zipf.sample(random)]++;
+		}
+		for (int count : counts) {
+			assertEquals(10_000, count, 500);
+		}
+	}
+}